@@ -0,0 +1,26 @@
+package com.learn.ecommerce.DTO.Order;
+
+import com.learn.ecommerce.enums.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class BulkOrderStatusDTO {
+    // either explicit ids ...
+    @Size(max = 100000)
+    private List<Long> orderIds;
+    // ... or every order currently in this status
+    private OrderStatus fromStatus;
+    @NotNull
+    private OrderStatus targetStatus;
+}
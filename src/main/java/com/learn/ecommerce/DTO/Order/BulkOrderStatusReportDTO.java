@@ -0,0 +1,22 @@
+package com.learn.ecommerce.DTO.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderStatusReportDTO {
+    private String targetStatus;
+    private long updated;
+    private long unchanged;     // already in the target status
+    private long failed;
+    private boolean failuresTruncated;
+    private List<OrderStatusFailureDTO> failures;
+    private long elapsedMillis;
+}
@@ -0,0 +1,19 @@
+package com.learn.ecommerce.DTO.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderCursorPageDTO {
+    private List<OrderSummaryDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
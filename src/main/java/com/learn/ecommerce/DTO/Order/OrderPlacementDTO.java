@@ -0,0 +1,22 @@
+package com.learn.ecommerce.DTO.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class OrderPlacementDTO {
+    private String handle;
+    private String status;
+    private Long orderId;       // set once the order is confirmed
+    private String message;     // rejection reason
+    private Instant submittedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,15 @@
+package com.learn.ecommerce.DTO.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusFailureDTO {
+    private Long orderId;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.learn.ecommerce.DTO.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class OrderSummaryDTO {
+    private Long id;
+    private String orderStatus;
+    private Double totalPrice;
+    private Instant createdAt;
+    private int itemCount;
+    private String shippingCity;
+}
@@ -0,0 +1,16 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryFacetDTO {
+    private Long categoryId;
+    private String categoryName;
+    private long count;
+}
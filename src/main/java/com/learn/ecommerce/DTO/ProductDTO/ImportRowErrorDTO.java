@@ -0,0 +1,15 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowErrorDTO {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCatalogPageDTO {
+    private List<ProductDTO> content;
+    private PagedModel.PageMetadata page;
+    private ProductFacetsDTO facets;
+}
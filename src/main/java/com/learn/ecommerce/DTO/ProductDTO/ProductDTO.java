@@ -12,6 +12,8 @@ import lombok.NoArgsConstructor;
 
 public class ProductDTO {
 
+    private Long id;
+
     private String name;
 
     private Double price;
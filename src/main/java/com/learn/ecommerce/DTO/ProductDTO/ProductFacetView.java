@@ -0,0 +1,10 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+public interface ProductFacetView {
+
+    Long getId();
+
+    Long getCategoryId();
+
+    Double getPrice();
+}
@@ -0,0 +1,17 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetsDTO {
+    private List<CategoryFacetDTO> categories;
+    private List<PriceBucketFacetDTO> priceBuckets;
+}
@@ -0,0 +1,8 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+public interface ProductPopularityView {
+
+    Long getProductId();
+
+    Long getUnitsSold();
+}
@@ -0,0 +1,10 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+public interface ProductSearchView {
+
+    Long getId();
+
+    String getName();
+
+    String getShortDescription();
+}
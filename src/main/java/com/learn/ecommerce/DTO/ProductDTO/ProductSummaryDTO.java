@@ -0,0 +1,17 @@
+package com.learn.ecommerce.DTO.ProductDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummaryDTO {
+    private Long id;
+    private String name;
+    private Double price;
+    private String shortDescription;
+}
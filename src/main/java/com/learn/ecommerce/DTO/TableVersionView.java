@@ -0,0 +1,10 @@
+package com.learn.ecommerce.DTO;
+
+import java.time.Instant;
+
+public interface TableVersionView {
+
+    Instant getLastModified();
+
+    Long getRowCount();
+}
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class DummyDataSeeder {
@@ -172,13 +173,11 @@ public class DummyDataSeeder {
             // ===========================
             // ORDER ITEMS
             // ===========================
-            OrderItem oi1 = OrderItem.builder().webOrder(order1).product(p1).quantity(1).build();
-            OrderItem oi2 = OrderItem.builder().webOrder(order1).product(p2).quantity(2).build();
-            OrderItem oi3 = OrderItem.builder().webOrder(order2).product(p3).quantity(1).build();
+            OrderItem oi1 = OrderItem.snapshotOf(p1, 1, order1);
+            OrderItem oi2 = OrderItem.snapshotOf(p2, 2, order1);
+            OrderItem oi3 = OrderItem.snapshotOf(p3, 1, order2);
 
-            orderItemRepo.save(oi1);
-            orderItemRepo.save(oi2);
-            orderItemRepo.save(oi3);
+            orderItemRepo.saveAll(List.of(oi1, oi2, oi3));
 
             order1.getOrderItems().add(oi1);
             order1.getOrderItems().add(oi2);
@@ -0,0 +1,27 @@
+package com.learn.ecommerce.config;
+
+import com.learn.ecommerce.entity.SequenceIds;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on JDBC batching for Hibernate writes. Inserts and updates are grouped
+ * by entity so a flush of an order and its items sends one batch per table.
+ * Values set through {@code spring.jpa.properties} take precedence.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${jpa.jdbc.batch-size:" + SequenceIds.ALLOCATION_SIZE + "}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.learn.ecommerce.config;
 
+import com.learn.ecommerce.config.security.IdempotencyFilter;
 import com.learn.ecommerce.config.security.JwtRequestFilter;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
@@ -16,9 +17,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class WebSecurityConfig {
 
     private final JwtRequestFilter jwtRequestFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
-    public WebSecurityConfig(JwtRequestFilter jwtRequestFilter) {
+    public WebSecurityConfig(JwtRequestFilter jwtRequestFilter, IdempotencyFilter idempotencyFilter) {
         this.jwtRequestFilter = jwtRequestFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
 
     @Bean
@@ -50,7 +53,8 @@ public class WebSecurityConfig {
                             response.getWriter().write("Access Denied: " + accessDeniedException.getMessage());
                         })
                 )
-                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, JwtRequestFilter.class);
 
         return http.build();
     }
@@ -22,7 +22,9 @@ public class AuditorAwareImpl implements AuditorAware<String> {
 
             Object principal = authentication.getPrincipal();
 
-            if (principal instanceof UserDetails) {
+            if (principal instanceof AuthenticatedUser authenticatedUser) {
+                return Optional.of(authenticatedUser.username());
+            } else if (principal instanceof UserDetails) {
                 return Optional.of(((UserDetails) principal).getUsername());
             } else if (principal instanceof LocalUser) { // if you are returning your entity as principal
                 return Optional.of(((LocalUser) principal).getUsername());
@@ -0,0 +1,31 @@
+package com.learn.ecommerce.config.security;
+
+import com.learn.ecommerce.entity.LocalUser;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The principal {@link JwtRequestFilter} puts in the security context: the
+ * caller's id, username and authorities, captured once when the token is
+ * validated. It is immutable and holds no JPA state, so it can be cached and
+ * shared between requests; services that need the {@link LocalUser} entity
+ * load it by {@link #id()}.
+ */
+public record AuthenticatedUser(Long id, String username, List<GrantedAuthority> authorities)
+        implements AuthenticatedPrincipal {
+
+    public AuthenticatedUser {
+        authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser of(LocalUser user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), List.copyOf(user.getAuthorities()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
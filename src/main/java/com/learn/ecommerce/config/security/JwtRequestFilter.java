@@ -1,11 +1,13 @@
 package com.learn.ecommerce.config.security;
 
-import com.learn.ecommerce.entity.LocalUser;
 import com.learn.ecommerce.entity.LoginTokens;
 import com.learn.ecommerce.repository.LocalUserRepo;
 import com.learn.ecommerce.repository.LoginTokensRepo;
 import com.learn.ecommerce.services.JwtService;
 import com.learn.ecommerce.services.LocalUserDetailsService;
+import com.learn.ecommerce.services.TokenEpochService;
+import com.learn.ecommerce.services.TokenValidationCache;
+import com.learn.ecommerce.utils.TokenHash;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,17 +34,23 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private final UserDetailsService userDetailsService;
 
     private final LocalUserDetailsService localUserDetailsService;
+    private final TokenValidationCache tokenValidationCache;
+    private final TokenEpochService tokenEpochService;
 
     public JwtRequestFilter(
             JwtService jwtService,
             LocalUserRepo localUserRepo,
             LoginTokensRepo loginTokensRepo,
-            UserDetailsService userDetailsService, LocalUserDetailsService localUserDetailsService) {
+            UserDetailsService userDetailsService, LocalUserDetailsService localUserDetailsService,
+            TokenValidationCache tokenValidationCache,
+            TokenEpochService tokenEpochService) {
         this.jwtService = jwtService;
         this.localUserRepo = localUserRepo;
         this.loginTokensRepo = loginTokensRepo;
         this.userDetailsService = userDetailsService;
         this.localUserDetailsService = localUserDetailsService;
+        this.tokenValidationCache = tokenValidationCache;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Override
@@ -75,57 +83,23 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         String token = header.substring(7);
 
         try {
-            String username = jwtService.getUsername(token);
-
-            Optional<LocalUser> userOpt =
-                    localUserRepo.findByUserNameIgnoreCase(username);
-            if (userOpt.isEmpty()) {
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            Optional<LoginTokens> tokenOpt =
-                    loginTokensRepo.findByToken(token);
-            if (tokenOpt.isEmpty()) {
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            LoginTokens tokenEntity = tokenOpt.get();
-
-            if (jwtService.isTokenExpired(token)) {
-                tokenEntity.setExpired(true);
-                loginTokensRepo.save(tokenEntity);
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            if (tokenEntity.getExpired() || tokenEntity.getRevoked()) {
-                filterChain.doFilter(request, response);
-                return;
+            String tokenHash = TokenHash.of(token);
+            TokenValidationCache.ValidatedToken cached = tokenValidationCache.get(tokenHash);
+            AuthenticatedUser user = cached != null && isEpochCurrent(cached) ? cached.user() : null;
+            if (user == null) {
+                user = validate(token, tokenHash);
+                if (user == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
             }
 
-            LocalUser user = userOpt.get();
-
-//            // Wrap LocalUser into Spring Security UserDetails
-//            User userDetails = (User) User.builder()
-//                    .username(user.getUsername())
-//                    .password(user.getPassword())
-//                    .authorities(user.getAuthorities())
-//                    .accountLocked(!user.isAccountNonLocked())
-//                    .disabled(!user.isEnabled())
-//                    .build();
-
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(user, null, user.authorities());
 
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            System.out.println("Authorities: " + authentication.getAuthorities());
-            System.out.println("Principal: " + authentication.getPrincipal());
-
-
             filterChain.doFilter(request, response);
 
         } catch (Exception ex) {
@@ -133,4 +107,48 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Full check of a token not found in the cache: signature and expiry, the
+     * user, and the user's token epoch. A valid token is cached until it
+     * expires; returns {@code null} for an invalid one.
+     */
+    private AuthenticatedUser validate(String token, String tokenHash) {
+        long generation = tokenValidationCache.generation();
+        JwtService.LoginClaims claims = jwtService.getLoginClaims(token);
+
+        // snapshot the entity right away; only the immutable principal is cached and shared
+        Optional<AuthenticatedUser> userOpt =
+                localUserRepo.findByUserNameIgnoreCase(claims.username()).map(AuthenticatedUser::of);
+        if (userOpt.isEmpty()) return null;
+
+        Long userId = userOpt.get().id();
+        if (claims.tokenEpoch() != null) {
+            if (!userId.equals(claims.userId())
+                    || claims.tokenEpoch() != tokenEpochService.currentEpoch(userId, claims.tokenEpoch())) return null;
+        } else if (!isLegacyTokenValid(userId, tokenHash)) {
+            return null;
+        }
+
+        AuthenticatedUser user = userOpt.get();
+        int tokenEpoch = claims.tokenEpoch() == null ? 0 : claims.tokenEpoch();
+        tokenValidationCache.put(tokenHash, user, tokenEpoch, jwtService.getExpiresAt(token), generation);
+        return user;
+    }
+
+    // a revocation on another instance only reaches this one through the epoch, so hits are checked too
+    private boolean isEpochCurrent(TokenValidationCache.ValidatedToken cached) {
+        return cached.tokenEpoch() == tokenEpochService.currentEpoch(cached.user().id(), cached.tokenEpoch());
+    }
+
+    /**
+     * Tokens issued before the epoch claim existed are valid until the user's
+     * first revocation under the epoch scheme, and only if their login token
+     * row was not expired or revoked by the older per-row logout.
+     */
+    private boolean isLegacyTokenValid(Long userId, String tokenHash) {
+        if (tokenEpochService.currentEpoch(userId) != 0) return false;
+        Optional<LoginTokens> tokenOpt = loginTokensRepo.findByTokenHash(tokenHash);
+        return tokenOpt.isPresent() && !tokenOpt.get().getExpired() && !tokenOpt.get().getRevoked();
+    }
+
 }
\ No newline at end of file
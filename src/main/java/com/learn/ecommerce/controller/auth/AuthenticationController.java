@@ -6,7 +6,7 @@ import com.learn.ecommerce.DTO.UserResponseDTO.LoginResponseDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.LogoutResponseDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.UserDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.UserStatusDTO;
-import com.learn.ecommerce.entity.LocalUser;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
 import com.learn.ecommerce.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -86,7 +86,7 @@ public class AuthenticationController {
     })
     @GetMapping("/me")
     @RolesAllowed({"USER", "ADMIN"}) // Both roles can access
-    public ResponseEntity<@NotNull UserDTO> getLoggedInUserProfile(@AuthenticationPrincipal LocalUser user) {
+    public ResponseEntity<@NotNull UserDTO> getLoggedInUserProfile(@AuthenticationPrincipal AuthenticatedUser user) {
 
 	    UserDTO profile = userService.getUserProfile(user);
 
@@ -165,7 +165,7 @@ public class AuthenticationController {
 	@Operation(summary = "Update user profile", description = "Updates user information for logged in user")
 	@PutMapping("/update/logged-user")
 	@RolesAllowed({"USER", "ADMIN"})
-	public ResponseEntity<@NotNull UserStatusDTO> updateLoggedInUser(@AuthenticationPrincipal LocalUser user, @Valid @RequestBody EditUserBody body) {
+	public ResponseEntity<@NotNull UserStatusDTO> updateLoggedInUser(@AuthenticationPrincipal AuthenticatedUser user, @Valid @RequestBody EditUserBody body) {
 
 		UserStatusDTO updated = userService.updateLoggedInUserProfile(user, body);
 
@@ -175,7 +175,7 @@ public class AuthenticationController {
     @Operation(summary = "Logout user", description = "Logs out the currently authenticated user")
     @PostMapping("/logout")
     @RolesAllowed({"USER", "ADMIN"})
-    public ResponseEntity<@NotNull LogoutResponseDTO> logoutUser(@AuthenticationPrincipal LocalUser user) {
+    public ResponseEntity<@NotNull LogoutResponseDTO> logoutUser(@AuthenticationPrincipal AuthenticatedUser user) {
 
         LogoutResponseDTO logoutResponse = userService.logoutUser(user);
 
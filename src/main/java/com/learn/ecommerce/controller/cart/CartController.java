@@ -4,7 +4,7 @@ import com.learn.ecommerce.DTO.Cart.CartDTO;
 import com.learn.ecommerce.DTO.Cart.CartStatusDTO;
 import com.learn.ecommerce.DTO.CartItem.AddItemDTO;
 import com.learn.ecommerce.DTO.ErrorResponseDTO;
-import com.learn.ecommerce.entity.LocalUser;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
 import com.learn.ecommerce.repository.LocalUserRepo;
 import com.learn.ecommerce.services.CartService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -51,9 +51,9 @@ public class CartController {
     })
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @GetMapping("/get")
-    public ResponseEntity<@NotNull CartDTO> getCart(@AuthenticationPrincipal LocalUser user) {
+    public ResponseEntity<@NotNull CartDTO> getCart(@AuthenticationPrincipal AuthenticatedUser user) {
 
-        log.info("Fetching active cart for user: {}", user.getUsername());
+        log.info("Fetching active cart for user: {}", user.username());
         return ResponseEntity.ok(cartService.getCurrentActiveCart(user));
     }
 
@@ -68,10 +68,10 @@ public class CartController {
     })
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @PostMapping("/create-cart")
-    public ResponseEntity<@NotNull CartDTO> createCart(@AuthenticationPrincipal LocalUser user) {
+    public ResponseEntity<@NotNull CartDTO> createCart(@AuthenticationPrincipal AuthenticatedUser user) {
 
 
-        log.info("Creating new cart for user: {}", user.getUsername());
+        log.info("Creating new cart for user: {}", user.username());
         return new ResponseEntity<>(cartService.createNewCartForUser(user), HttpStatus.CREATED);
     }
 
@@ -87,12 +87,12 @@ public class CartController {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @PostMapping("/add-item")
     public ResponseEntity<@NotNull CartStatusDTO> addItemToCart(
-            @AuthenticationPrincipal LocalUser user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Item to add") @RequestBody AddItemDTO body
     ) {
 
 
-        log.info("Adding item (productId={}, quantity={}) to cart for user: {}",body.getProductId(), body.getQuantity(), user.getUsername());
+        log.info("Adding item (productId={}, quantity={}) to cart for user: {}",body.getProductId(), body.getQuantity(), user.username());
 
         return ResponseEntity.ok(cartService.addItemToCart(user, body));
     }
@@ -109,11 +109,11 @@ public class CartController {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @DeleteMapping("/delete-item/{itemId}")
     public ResponseEntity<@NotNull CartStatusDTO> deleteItemFromCart(
-            @AuthenticationPrincipal LocalUser user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID of the item to remove") @PathVariable Long itemId
     ) {
 
-        log.warn("Deleting item id={} from cart for user: {}", itemId, user.getUsername());
+        log.warn("Deleting item id={} from cart for user: {}", itemId, user.username());
         return ResponseEntity.ok(cartService.deleteCartItem(user, itemId));
     }
 
@@ -128,10 +128,10 @@ public class CartController {
     })
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @DeleteMapping("/delete-cart")
-    public ResponseEntity<@NotNull CartStatusDTO> deleteCart(@AuthenticationPrincipal LocalUser user) {
+    public ResponseEntity<@NotNull CartStatusDTO> deleteCart(@AuthenticationPrincipal AuthenticatedUser user) {
 
 
-        log.warn("Deleting entire cart for user: {}", user.getUsername());
+        log.warn("Deleting entire cart for user: {}", user.username());
         return ResponseEntity.ok(cartService.deleteCart(user));
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.learn.ecommerce.DTO.Category.CategoryDTO;
 import com.learn.ecommerce.DTO.Category.CategoryStatusDTO;
 import com.learn.ecommerce.DTO.ErrorResponseDTO;
 import com.learn.ecommerce.services.CategoryService;
+import com.learn.ecommerce.utils.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -44,11 +46,17 @@ public class CategoryController {
             description = "Retrieve a list of all product categories"
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Categories retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Categories retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Categories not modified since the given ETag")
     })
     @GetMapping("/get")
     @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest webRequest) {
+        ResourceVersion version = categoryService.getCategoriesVersion();
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            log.debug("Categories not modified");
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         log.info("Fetching all categories");
         List<CategoryDTO> categories = categoryService.getAllCategories();
         log.info("Retrieved {} categories", categories.size());
@@ -64,12 +72,18 @@ public class CategoryController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Category retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Category not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Category not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
     })
     @GetMapping("/get/{id}")
     @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        ResourceVersion version = categoryService.getCategoryVersion(id);
+        if (version != null && webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            log.debug("Category id={} not modified", id);
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         log.info("Fetching category with id={}", id);
         CategoryDTO category = categoryService.getCategoryById(id);
         log.info("Category retrieved: {}", category.getName());
@@ -1,11 +1,20 @@
 package com.learn.ecommerce.controller.order;
 
 import com.learn.ecommerce.DTO.ErrorResponseDTO;
+import com.learn.ecommerce.DTO.Order.BulkOrderStatusDTO;
+import com.learn.ecommerce.DTO.Order.BulkOrderStatusReportDTO;
+import com.learn.ecommerce.DTO.Order.OrderCursorPageDTO;
 import com.learn.ecommerce.DTO.Order.OrderDTO;
-import com.learn.ecommerce.entity.LocalUser;
+import com.learn.ecommerce.DTO.Order.OrderPlacementDTO;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
+import com.learn.ecommerce.enums.OrderStatus;
 import com.learn.ecommerce.repository.LocalUserRepo;
+import com.learn.ecommerce.services.OrderPlacementService;
 import com.learn.ecommerce.services.OrderService;
+import com.learn.ecommerce.services.OrderStatusService;
+import com.learn.ecommerce.services.OrderSummaryProjector;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,14 +22,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.validation.Valid;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @Slf4j
@@ -35,10 +47,20 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderPlacementService orderPlacementService;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final OrderStatusService orderStatusService;
     private final LocalUserRepo localUserRepo;
 
-    public OrderController(OrderService orderService, LocalUserRepo localUserRepo) {
+    public OrderController(OrderService orderService,
+                           OrderPlacementService orderPlacementService,
+                           OrderSummaryProjector orderSummaryProjector,
+                           OrderStatusService orderStatusService,
+                           LocalUserRepo localUserRepo) {
         this.orderService = orderService;
+        this.orderPlacementService = orderPlacementService;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.orderStatusService = orderStatusService;
         this.localUserRepo = localUserRepo;
     }
 
@@ -60,22 +82,79 @@ public class OrderController {
     @PostMapping("/place")
     @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
     public ResponseEntity<@NotNull OrderDTO> placeOrder(
-            @AuthenticationPrincipal LocalUser user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam Long addressId
     ) {
-        log.info("User {} attempting to place an order with addressId {}", user.getUsername(), addressId);
+        log.info("User {} attempting to place an order with addressId {}", user.username(), addressId);
 
         OrderDTO orderDTO = orderService.placeOrderFromCart(user, addressId);
-        log.info("Order placed successfully for user {}. Order ID: {}", user.getUsername(), orderDTO.getId());
+        log.info("Order placed successfully for user {}. Order ID: {}", user.username(), orderDTO.getId());
         return new ResponseEntity<>(orderDTO, HttpStatus.CREATED);
     }
 
+    // -----------------------------
+    // Place order asynchronously
+    // -----------------------------
+    @Operation(
+            summary = "Queue an order from the active cart",
+            description = "Validates the request and queues the order for placement. Poll the returned handle at /orders/placements/{handle} for PENDING, CONFIRMED or REJECTED"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Order queued for placement"),
+            @ApiResponse(responseCode = "403", description = "No active cart",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Address not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Placement queue is full, retry later",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PostMapping("/place/async")
+    @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
+    public ResponseEntity<@NotNull OrderPlacementDTO> placeOrderAsync(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam Long addressId
+    ) {
+        log.info("User {} queueing an order with addressId {}", user.username(), addressId);
+
+        OrderPlacementDTO placement = orderPlacementService.submit(user, addressId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/orders/placements/" + placement.getHandle()))
+                .body(placement);
+    }
+
+    // -----------------------------
+    // Get status of a queued order
+    // -----------------------------
+    @Operation(
+            summary = "Get status of a queued order",
+            description = "Returns PENDING while the order is queued, then CONFIRMED with the order id or REJECTED with the reason"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Placement status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired handle",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping("/placements/{handle}")
+    @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
+    public ResponseEntity<@NotNull OrderPlacementDTO> getPlacement(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String handle
+    ) {
+        return new ResponseEntity<>(orderPlacementService.getPlacement(user, handle), HttpStatus.OK);
+    }
+
     // -----------------------------
     // Get all orders for current user
     // -----------------------------
     @Operation(
-            summary = "Get all orders for authenticated user",
-            description = "Returns a list of all orders placed by the authenticated user"
+            summary = "Get recent orders for authenticated user",
+            description = "Returns the 100 most recent orders of the authenticated user with their items. "
+                    + "Deprecated: pass a cursor for the keyset paged history, which covers every order",
+            deprecated = true
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
@@ -84,14 +163,110 @@ public class OrderController {
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
     })
+    @Deprecated
     @GetMapping("/my-orders")
     @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
-    public ResponseEntity<@NotNull List<OrderDTO>> getUserOrders(@AuthenticationPrincipal LocalUser user) {
-        log.info("Fetching all orders for user: {}", user.getUsername());
+    public ResponseEntity<@NotNull List<OrderDTO>> getUserOrders(@AuthenticationPrincipal AuthenticatedUser user) {
+        log.info("Fetching recent orders for user: {}", user.username());
 
         List<OrderDTO> orders = orderService.getOrdersForUser(user);
-        log.info("Retrieved {} orders for user: {}", orders.size(), user.getUsername());
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+        log.info("Retrieved {} orders for user: {}", orders.size(), user.username());
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</orders/my-orders?cursor=>; rel=\"successor-version\"")
+                .body(orders);
+    }
+
+    // -----------------------------
+    // Get order history by cursor
+    // -----------------------------
+    @Operation(
+            summary = "Get order history by cursor",
+            description = "Keyset paginated order summaries for the authenticated user, newest first. Pass an empty cursor "
+                    + "for the first page, then the nextCursor of the previous response. Use /orders/{orderId} for items"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping(value = "/my-orders", params = "cursor")
+    @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
+    public ResponseEntity<@NotNull OrderCursorPageDTO> getUserOrdersByCursor(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "Continuation token, empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size
+    ) {
+        log.info("Fetching order history by cursor for user: {}", user.username());
+        return new ResponseEntity<>(orderService.getOrdersForUserByCursor(user, cursor, size), HttpStatus.OK);
+    }
+
+    // -----------------------------
+    // Get order summaries by status (ADMIN)
+    // -----------------------------
+    @Operation(
+            summary = "Get order summaries by status",
+            description = "Keyset paginated order summaries in the given status, newest first. Admin only"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or status",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping("/summaries")
+    @RolesAllowed({"ROLE_ADMIN"})
+    public ResponseEntity<@NotNull OrderCursorPageDTO> getOrderSummaries(
+            @Parameter(description = "Order status", example = "PENDING") @RequestParam OrderStatus status,
+            @Parameter(description = "Continuation token, empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size
+    ) {
+        return new ResponseEntity<>(orderService.getOrderSummariesByStatus(status, cursor, size), HttpStatus.OK);
+    }
+
+    // -----------------------------
+    // Rebuild order summaries (ADMIN)
+    // -----------------------------
+    @Operation(
+            summary = "Rebuild order summaries",
+            description = "Recomputes the order summary read model from the order tables. Returns the number of orders processed"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Read model rebuilt"),
+            @ApiResponse(responseCode = "403", description = "Forbidden",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PostMapping("/summaries/rebuild")
+    @RolesAllowed({"ROLE_ADMIN"})
+    public ResponseEntity<@NotNull Long> rebuildOrderSummaries() {
+        log.info("Admin rebuilding order summaries");
+        return new ResponseEntity<>(orderSummaryProjector.rebuild(), HttpStatus.OK);
+    }
+
+    // -----------------------------
+    // Bulk status transition (ADMIN)
+    // -----------------------------
+    @Operation(
+            summary = "Move orders to a new status in bulk",
+            description = "Moves the given order ids, or every order in fromStatus, to targetStatus. "
+                    + "Transitions follow CREATED -> PENDING -> PAID -> SHIPPED, with CANCELLED allowed before shipping. "
+                    + "Returns per-order failures"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transition applied, see report for failures"),
+            @ApiResponse(responseCode = "400", description = "Invalid selector or transition",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PostMapping("/status/bulk")
+    @RolesAllowed({"ROLE_ADMIN"})
+    public ResponseEntity<@NotNull BulkOrderStatusReportDTO> transitionOrders(@Valid @RequestBody BulkOrderStatusDTO body) {
+        log.info("Admin moving orders to {}", body.getTargetStatus());
+        return new ResponseEntity<>(orderStatusService.transition(body), HttpStatus.OK);
     }
 
     // -----------------------------
@@ -111,14 +286,14 @@ public class OrderController {
     @GetMapping("/{orderId}")
     @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
     public ResponseEntity<@NotNull OrderDTO> getOrderById(
-            @AuthenticationPrincipal LocalUser user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable Long orderId
     ) {
-        log.info("Fetching order ID {} for user: {}", orderId, user.getUsername());
+        log.info("Fetching order ID {} for user: {}", orderId, user.username());
 
 
         OrderDTO order = orderService.getOrderById(user, orderId);
-        log.info("Order ID {} retrieved for user: {}", orderId, user.getUsername());
+        log.info("Order ID {} retrieved for user: {}", orderId, user.username());
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -2,7 +2,11 @@ package com.learn.ecommerce.controller.product;
 
 import com.learn.ecommerce.DTO.ErrorResponseDTO;
 import com.learn.ecommerce.DTO.ProductDTO.*;
+import com.learn.ecommerce.services.ProductExportService;
+import com.learn.ecommerce.services.ProductImportService;
 import com.learn.ecommerce.services.ProductService;
+import com.learn.ecommerce.services.ProductSuggestService;
+import com.learn.ecommerce.utils.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,15 +15,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -30,18 +39,30 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final ProductSuggestService productSuggestService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductImportService productImportService,
+                             ProductExportService productExportService,
+                             ProductSuggestService productSuggestService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.productSuggestService = productSuggestService;
     }
 
     // ------------------------------------------------
     // Get paginated list of products (USER, ADMIN)
     // ------------------------------------------------
     @Operation(summary = "Get products",
-            description = "Retrieve paginated list of products with optional price filtering and sorting")
+            description = "Retrieve paginated list of products with optional price and category filtering and sorting, "
+                    + "together with facet counts per category and price bucket. Category counts apply the price "
+                    + "filter and price bucket counts apply the category filter; deleted categories are not listed")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Products not modified since the given ETag"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
@@ -49,16 +70,64 @@ public class ProductController {
     })
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @GetMapping("/get")
-    public ResponseEntity<Page<ProductDTO>> getProducts(
+    public ResponseEntity<ProductCatalogPageDTO> getProducts(
             @Parameter(description = "Minimum product price") @RequestParam(required = false) Double priceMin,
             @Parameter(description = "Maximum product price") @RequestParam(required = false) Double priceMax,
+            @Parameter(description = "Category name") @RequestParam(required = false) String category,
+            @Parameter(description = "Category IDs") @RequestParam(required = false) List<Long> categoryId,
             @Parameter(description = "Sort field", example = "name") @RequestParam(defaultValue = "name") String sortBy,
             @Parameter(description = "Sort direction", example = "asc") @RequestParam(defaultValue = "asc") String sortDir,
-            @PageableDefault(page = 0, size = 10) Pageable pageable
+            @PageableDefault(page = 0, size = 10) Pageable pageable,
+            WebRequest webRequest
     ) {
-        log.info("Fetching products | priceMin={}, priceMax={}, sortBy={}, sortDir={}",
-                priceMin, priceMax, sortBy, sortDir);
-        return ResponseEntity.ok(productService.getProducts(priceMin, priceMax, sortBy, sortDir, pageable));
+        ResourceVersion version = productService.getCatalogVersion(
+                priceMin, priceMax, category, categoryId, sortBy, sortDir, pageable);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            log.debug("Product listing not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        log.info("Fetching products | priceMin={}, priceMax={}, category={}, categoryId={}, sortBy={}, sortDir={}",
+                priceMin, priceMax, category, categoryId, sortBy, sortDir);
+        return ResponseEntity.ok(productService.getProducts(priceMin, priceMax, category, categoryId, sortBy, sortDir, pageable));
+    }
+
+    // ------------------------------------------------
+    // Get products by cursor (USER, ADMIN)
+    // ------------------------------------------------
+    @Operation(summary = "Get products by cursor",
+            description = "Keyset paginated list of products. Pass an empty cursor for the first page, "
+                    + "then the nextCursor of the previous response. Sorting is limited to name, price or id")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Products not modified since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or sort field",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
+    @GetMapping(value = "/get", params = "cursor")
+    public ResponseEntity<ProductCursorPageDTO> getProductsByCursor(
+            @Parameter(description = "Minimum product price") @RequestParam(required = false) Double priceMin,
+            @Parameter(description = "Maximum product price") @RequestParam(required = false) Double priceMax,
+            @Parameter(description = "Category name") @RequestParam(required = false) String category,
+            @Parameter(description = "Category IDs") @RequestParam(required = false) List<Long> categoryId,
+            @Parameter(description = "Sort field", example = "name") @RequestParam(defaultValue = "name") String sortBy,
+            @Parameter(description = "Sort direction", example = "asc") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Continuation token, empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
+    ) {
+        ResourceVersion version = productService.getCatalogVersion(
+                priceMin, priceMax, category, categoryId, sortBy, sortDir, cursor, size);
+        if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            log.debug("Product cursor page not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        log.info("Fetching products by cursor | priceMin={}, priceMax={}, sortBy={}, sortDir={}, size={}",
+                priceMin, priceMax, sortBy, sortDir, size);
+        return ResponseEntity.ok(productService.getProductsByCursor(
+                priceMin, priceMax, category, categoryId, sortBy, sortDir, cursor, size));
     }
 
     // ------------------------------------------------
@@ -67,6 +136,7 @@ public class ProductController {
     @Operation(summary = "Get product by ID", description = "Retrieve product details using product ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the given ETag"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "Product not found",
@@ -75,10 +145,17 @@ public class ProductController {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProduct(
-            @Parameter(description = "Product ID", required = true) @PathVariable Long id
+            @Parameter(description = "Product ID", required = true) @PathVariable Long id,
+            WebRequest webRequest
     ) {
         log.info("Fetching product with id={}", id);
-        return ResponseEntity.ok(productService.getProduct(id));
+        ProductDTO product = productService.getProduct(id);
+        // the detail view carries no timestamp, so it is validated by ETag alone
+        if (webRequest.checkNotModified(productService.getProductVersion(product).etag())) {
+            log.debug("Product id={} not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(product);
     }
 
     // ------------------------------------------------
@@ -99,6 +176,54 @@ public class ProductController {
         return ResponseEntity.ok(productService.addProduct(productBody));
     }
 
+    // ------------------------------------------------
+    // Bulk import products from CSV / NDJSON (ADMIN only)
+    // ------------------------------------------------
+    @Operation(summary = "Import products",
+            description = "Stream a CSV (header row: name,price,shortDescription,longDescription,quantity,categoryId) "
+                    + "or NDJSON feed of products. Rows are validated one by one and inserted in batches, "
+                    + "committing per chunk (Admin only)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, see the report for per-row errors"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportReportDTO> importProducts(HttpServletRequest request) throws IOException {
+        ProductImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+        log.info("Admin importing products as {}", format);
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+    }
+
+    // ------------------------------------------------
+    // Export catalog as NDJSON (ADMIN only)
+    // ------------------------------------------------
+    @Operation(summary = "Export products",
+            description = "Stream every non-deleted product with its inventory quantity and category "
+                    + "as newline-delimited JSON, ordered by id (Admin only)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        log.info("Admin exporting product catalog");
+        StreamingResponseBody body = productExportService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // ------------------------------------------------
     // Edit product (ADMIN only)
     // ------------------------------------------------
@@ -110,6 +235,8 @@ public class ProductController {
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Stock of a hot-SKU product cannot be edited",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
     })
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -162,6 +289,27 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(query));
     }
 
+    // ------------------------------------------------
+    // Autocomplete product names (USER, ADMIN)
+    // ------------------------------------------------
+    @Operation(summary = "Suggest products",
+            description = "Product names starting with the given prefix, best sellers first. "
+                    + "Served from memory, meant for search-as-you-type")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Suggestions returned successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_USER')")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "Name prefix", required = true) @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions", example = "10") @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.debug("Suggesting products for prefix='{}'", prefix);
+        return ResponseEntity.ok(productSuggestService.suggest(prefix, limit));
+    }
+
     // ------------------------------------------------
     // Update product category (ADMIN only)
     // ------------------------------------------------
@@ -0,0 +1,46 @@
+package com.learn.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Backing table of the JDBC idempotency store. A row without
+ * {@code completed} marks an execution in progress on some node.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "idempotency_record", indexes = @Index(name = "ix_idempotency_record_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = 400)
+    private String idempotencyKey;
+
+    @Column(name = "fingerprint", nullable = false, length = 1000)
+    private String fingerprint;
+
+    // claim token of the execution holding the row; only it may complete or release it
+    @Column(name = "owner_token", length = 36)
+    private String ownerToken;
+
+    @Column(name = "completed", nullable = false, columnDefinition = "BIT DEFAULT 0")
+    private boolean completed = false;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Lob
+    @Column(name = "body")
+    private byte[] body;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
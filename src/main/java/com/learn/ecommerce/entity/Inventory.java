@@ -13,7 +13,8 @@ import lombok.*;
 @Table(name = "inventory")
 public class Inventory extends BaseAuditEntity{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -0,0 +1,34 @@
+package com.learn.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Stock taken from a hot-SKU counter that has not been written to
+ * {@link Inventory} yet. Rows are inserted in the checkout transaction and
+ * deleted by the write-behind flush in the same transaction that applies them.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "inventory_journal", indexes = @Index(name = "ix_inventory_journal_product", columnList = "product_id"))
+public class InventoryJournal {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -64,6 +64,10 @@ public class LocalUser extends BaseAuditEntity implements UserDetails {
     @Column(name = "is_deleted", nullable = false, columnDefinition = "BIT DEFAULT 0")
     private boolean isDeleted = false;
 
+    // bumped by TokenEpochService to revoke every token issued before; never written through the entity
+    @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
+    private int tokenEpoch = 0;
+
 /* ===============================
        USER ROLES
        =============================== */
@@ -1,5 +1,6 @@
 package com.learn.ecommerce.entity;
 
+import com.learn.ecommerce.utils.TokenHash;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -15,7 +16,8 @@ import java.time.Instant;
 public class LoginTokens extends BaseAuditEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_tokens_seq")
+    @SequenceGenerator(name = "login_tokens_seq", sequenceName = "login_tokens_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -25,9 +27,15 @@ public class LoginTokens extends BaseAuditEntity {
     private LocalUser user;
 
     @Lob
-    @Column(name = "token", nullable = false, unique = true)
+    @Column(name = "token", nullable = false)
     private String token;
 
+    // SHA-256 of the token, see TokenHash; tokens are looked up by this, never by the LOB itself.
+    // Mapped nullable so schema update can add it to tables with legacy rows;
+    // TokenHashBackfillService fills it, adds the unique index and makes it NOT NULL
+    @Column(name = "token_hash", length = TokenHash.LENGTH)
+    private String tokenHash;
+
     @Column(name = "expired", nullable = false)
     private Boolean expired = false;
 
@@ -42,4 +50,9 @@ public class LoginTokens extends BaseAuditEntity {
 
 	@Column(name = "is_deleted", nullable = false, columnDefinition = "BIT DEFAULT 0")
 	private boolean isDeleted = false;
-}
\ No newline at end of file
+
+    @PrePersist
+    void hashToken() {
+        tokenHash = TokenHash.of(token);
+    }
+}
@@ -10,18 +10,34 @@ import lombok.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "order_item")
+@Table(name = "order_item", indexes = @Index(name = "ix_order_item_web_order", columnList = "web_order_id"))
 public class OrderItem extends BaseAuditEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // read-only view of the FK so order reads never need the product row
+    @Column(name = "product_id", insertable = false, updatable = false)
+    private Long productId;
+
+    /* ---------- Snapshot of the product at placement time ---------- */
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "unit_price")
+    private Double unitPrice;
+
+    @Column(name = "line_total")
+    private Double lineTotal;
+
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
@@ -36,11 +52,34 @@ public class OrderItem extends BaseAuditEntity {
 
     /* ------------------ Helper Methods ------------------ */
 
+    /**
+     * Creates an order line that records the product's current name and price,
+     * so later price changes never alter the order.
+     */
+    public static OrderItem snapshotOf(Product product, int quantity, WebOrder webOrder) {
+        return OrderItem.builder()
+                .product(product)
+                .productId(product.getId())
+                .productName(product.getName())
+                .unitPrice(product.getPrice())
+                .lineTotal(product.getPrice() * quantity)
+                .quantity(quantity)
+                .webOrder(webOrder)
+                .build();
+    }
+
     public void markDeleted() {
         this.isDeleted = true;
     }
 
-    public double getTotalPrice() {
-        return product.getPrice() * quantity;
+    /**
+     * Total of the line. Rows written before the snapshot columns existed may
+     * not be backfilled yet: their total is derived from the unit price, and is
+     * null when the price is unknown too.
+     */
+    public Double getTotalPrice() {
+        if (lineTotal != null) return lineTotal;
+        if (unitPrice != null && quantity != null) return unitPrice * quantity;
+        return null;
     }
 }
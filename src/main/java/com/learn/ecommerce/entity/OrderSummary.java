@@ -0,0 +1,54 @@
+package com.learn.ecommerce.entity;
+
+import com.learn.ecommerce.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Read model of an order: one row per order with everything the order lists
+ * show, so they are served from a single indexed table. Written only by
+ * {@link com.learn.ecommerce.services.OrderSummaryProjector} from the order
+ * tables; never edit it directly.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "order_summary", indexes = {
+        @Index(name = "ix_order_summary_user_created", columnList = "user_id, created_at, order_id"),
+        @Index(name = "ix_order_summary_status_created", columnList = "order_status, created_at, order_id")
+})
+public class OrderSummary {
+    @Id
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false)
+    private OrderStatus orderStatus;
+
+    @Column(name = "total_price", nullable = false)
+    private Double totalPrice;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+
+    @Column(name = "shipping_city")
+    private String shippingCity;
+
+    @Column(name = "is_deleted", nullable = false, columnDefinition = "BIT DEFAULT 0")
+    private boolean isDeleted = false;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.learn.ecommerce.entity;
+
+/**
+ * Id allocation for the write-heavy entities. They draw ids from a database
+ * sequence in blocks of {@link #ALLOCATION_SIZE} (Hibernate's pooled optimizer:
+ * a sequence value {@code v} covers ids {@code v - ALLOCATION_SIZE + 1 .. v}),
+ * so Hibernate knows ids before the INSERT and can send inserts as JDBC batches,
+ * which IDENTITY columns rule out. Tables created before the switch are
+ * migrated at startup by
+ * {@link com.learn.ecommerce.services.SequenceIdMigrationService}.
+ */
+public final class SequenceIds {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private SequenceIds() {
+    }
+}
@@ -1,5 +1,6 @@
 package com.learn.ecommerce.entity;
 
+import com.learn.ecommerce.utils.TokenHash;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -19,9 +20,15 @@ public class VerificationToken extends BaseAuditEntity{
     private Long id;
 
     @Lob
-    @Column(name = "token", nullable = false, unique = true)
+    @Column(name = "token", nullable = false)
     private String token;
 
+    // SHA-256 of the token, see TokenHash; tokens are looked up by this, never by the LOB itself.
+    // Mapped nullable so schema update can add it to tables with legacy rows;
+    // TokenHashBackfillService fills it, adds the unique index and makes it NOT NULL
+    @Column(name = "token_hash", length = TokenHash.LENGTH)
+    private String tokenHash;
+
     @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
@@ -31,7 +38,8 @@ public class VerificationToken extends BaseAuditEntity{
 	@Column(name = "is_deleted", nullable = false, columnDefinition = "BIT DEFAULT 0")
 	private boolean isDeleted = false;
 
-
-
-
-}
\ No newline at end of file
+    @PrePersist
+    void hashToken() {
+        tokenHash = TokenHash.of(token);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Objects;
 
 @Entity
 @Getter
@@ -13,11 +14,13 @@ import java.util.Collection;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "orders") // Avoid SQL Server reserved word "ORDER"
+@Table(name = "orders", // Avoid SQL Server reserved word "ORDER"
+        indexes = @Index(name = "ix_orders_user_created", columnList = "user_id, created_at, id"))
 public class WebOrder extends BaseAuditEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -64,7 +67,9 @@ public class WebOrder extends BaseAuditEntity {
     public void recalculateTotal() {
         totalPrice = orderItems.stream()
                 .filter(i -> !i.isDeleted())
-                .mapToDouble(i -> i.getProduct().getPrice() * i.getQuantity())
+                .map(OrderItem::getTotalPrice)
+                .filter(Objects::nonNull)   // lines still waiting for the price backfill
+                .mapToDouble(Double::doubleValue)
                 .sum();
     }
 
@@ -0,0 +1,7 @@
+package com.learn.ecommerce.enums;
+
+public enum OrderPlacementStatus {
+    PENDING,
+    CONFIRMED,
+    REJECTED
+}
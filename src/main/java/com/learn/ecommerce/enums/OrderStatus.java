@@ -1,9 +1,29 @@
 package com.learn.ecommerce.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED,
     PENDING,
     PAID,
     SHIPPED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Fulfilment state machine: orders move forward one step at a time and can be
+     * cancelled until they ship. SHIPPED and CANCELLED are final.
+     */
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case CREATED -> EnumSet.of(PENDING, CANCELLED);
+            case PENDING -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return nextStatuses().contains(target);
+    }
 }
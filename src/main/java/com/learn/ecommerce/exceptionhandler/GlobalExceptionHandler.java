@@ -5,6 +5,7 @@ import com.learn.ecommerce.DTO.ErrorResponseDTO;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -234,6 +235,56 @@ public class GlobalExceptionHandler {
                 .errorTimestamp(LocalDateTime.now())
                 .build(), HttpStatus.NOT_FOUND);
     }
+    @ExceptionHandler
+    public ResponseEntity<?> handleInvalidCursorException(InvalidCursorException ex, WebRequest request) {
+        logError("Invalid cursor", ex);
+        return new ResponseEntity<>(ErrorResponseDTO
+                .builder()
+                .errorStatus(HttpStatus.BAD_REQUEST)
+                .errorDescription(request.getDescription(true))
+                .errorMessage(ex.getMessage())
+                .errorTimestamp(LocalDateTime.now())
+                .build(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<?> handleInvalidStatusTransitionException(InvalidStatusTransitionException ex, WebRequest request) {
+        logError("Invalid status transition", ex);
+        return new ResponseEntity<>(ErrorResponseDTO
+                .builder()
+                .errorStatus(HttpStatus.BAD_REQUEST)
+                .errorDescription(request.getDescription(true))
+                .errorMessage(ex.getMessage())
+                .errorTimestamp(LocalDateTime.now())
+                .build(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<?> handleHotStockManagedException(HotStockManagedException ex, WebRequest request) {
+        logError("Hot stock edit", ex);
+        return new ResponseEntity<>(ErrorResponseDTO
+                .builder()
+                .errorStatus(HttpStatus.CONFLICT)
+                .errorDescription(request.getDescription(true))
+                .errorMessage(ex.getMessage())
+                .errorTimestamp(LocalDateTime.now())
+                .build(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<?> handleOrderQueueFullException(OrderQueueFullException ex, WebRequest request) {
+        logError("Order queue full", ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ErrorResponseDTO
+                        .builder()
+                        .errorStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                        .errorDescription(request.getDescription(true))
+                        .errorMessage(ex.getMessage())
+                        .errorTimestamp(LocalDateTime.now())
+                        .build());
+    }
+
     private void logError(String message, Exception ex) {
         log.error(message, ex);
         ex.printStackTrace();
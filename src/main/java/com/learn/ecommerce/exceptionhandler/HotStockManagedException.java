@@ -0,0 +1,7 @@
+package com.learn.ecommerce.exceptionhandler;
+
+public class HotStockManagedException extends RuntimeException {
+    public HotStockManagedException(String message) {
+        super(message);
+    }
+}
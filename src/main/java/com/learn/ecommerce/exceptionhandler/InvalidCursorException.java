@@ -0,0 +1,7 @@
+package com.learn.ecommerce.exceptionhandler;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
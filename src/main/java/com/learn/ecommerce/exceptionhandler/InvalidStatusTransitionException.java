@@ -0,0 +1,7 @@
+package com.learn.ecommerce.exceptionhandler;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.learn.ecommerce.exceptionhandler;
+
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
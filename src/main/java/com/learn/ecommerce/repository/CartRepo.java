@@ -4,6 +4,7 @@ import com.learn.ecommerce.entity.Cart;
 import com.learn.ecommerce.entity.LocalUser;
 import com.learn.ecommerce.enums.CartStatus;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -19,6 +20,12 @@ public interface CartRepo extends JpaRepository<@NotNull Cart, @NotNull Long> {
     Optional<Cart> findByUserIdAndStatus(Long id, CartStatus cartStatus);
     Optional<Cart> findByIdAndUserId(Long id, Long cartId);
 
+    @EntityGraph(attributePaths = {"items", "items.product", "items.product.inventory"})
+    Optional<Cart> findWithItemsByUserIdAndStatus(Long userId, CartStatus cartStatus);
+
+    @EntityGraph(attributePaths = {"items", "items.product", "items.product.inventory"})
+    Optional<Cart> findWithItemsByIdAndUserId(Long id, Long userId);
+
 	Optional<Cart> findByIdAndIsDeleted(Long id, boolean isDeleted);
 	List<Cart> findAllByIsDeleted(boolean isDeleted);
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.learn.ecommerce.repository;
 
+import com.learn.ecommerce.DTO.TableVersionView;
 import com.learn.ecommerce.entity.Category;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +16,10 @@ public interface CategoryRepo extends JpaRepository<@NotNull Category, @NotNull
 
 	Optional<Category> findByIdAndIsDeleted(Long id, boolean isDeleted);
 	List<Category> findAllByIsDeleted(boolean isDeleted);
+
+	@Query("SELECT c.updatedAt FROM Category c WHERE c.id = :id AND c.isDeleted = false")
+	Optional<Instant> findUpdatedAtById(@Param("id") Long id);
+
+	@Query("SELECT MAX(c.updatedAt) AS lastModified, COUNT(c) AS rowCount FROM Category c")
+	TableVersionView findTableVersion();
 }
\ No newline at end of file
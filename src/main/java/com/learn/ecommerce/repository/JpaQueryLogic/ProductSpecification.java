@@ -1,9 +1,14 @@
 package com.learn.ecommerce.repository.JpaQueryLogic;
 
 import com.learn.ecommerce.entity.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public class ProductSpecification {
     public static Specification<@NotNull Product> isNotDeleted() {
         return (root, query, cb) ->
@@ -17,6 +22,13 @@ public class ProductSpecification {
                         : cb.equal(root.get("category").get("name"), category);
     }
 
+    public static Specification<@NotNull Product> inCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) ->
+                categoryIds == null || categoryIds.isEmpty()
+                        ? null
+                        : root.get("category").get("id").in(categoryIds);
+    }
+
     public static Specification<@NotNull Product> priceBetween(
             Double min, Double max
     ) {
@@ -30,4 +42,31 @@ public class ProductSpecification {
             return cb.between(root.get("price"), min, max);
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Keyset condition for rows strictly after (lastValue, lastId) in the
+     * ordering {@code sortBy, id}, both in the same direction.
+     */
+    public static <T extends Comparable<? super T>> Specification<@NotNull Product> after(
+            String sortBy, boolean descending, T lastValue, Long lastId
+    ) {
+        return (root, query, cb) -> {
+            if (lastId == null) return null;
+            Expression<Long> id = root.get("id");
+            Predicate idAfter = beyond(cb, id, lastId, descending);
+            if ("id".equals(sortBy)) return idAfter;
+
+            Expression<T> key = root.get(sortBy);
+            return cb.or(
+                    beyond(cb, key, lastValue, descending),
+                    cb.and(cb.equal(key, lastValue), idAfter)
+            );
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(
+            CriteriaBuilder cb, Expression<T> path, T value, boolean descending
+    ) {
+        return descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+    }
+}
@@ -14,7 +14,7 @@ public interface LoginTokensRepo extends JpaRepository<@NotNull LoginTokens, @No
     Optional<Collection<LoginTokens>> findLoginTokensByUser(LocalUser user);
 
     List<LoginTokens> findAllByUserAndIsDeleted(LocalUser user, boolean isDeleted);
-    Optional<LoginTokens> findByToken(String token);
+    Optional<LoginTokens> findByTokenHash(String tokenHash);
 
 	List<LoginTokens> findAllByIsDeleted(boolean isDeleted);
 	Optional<LoginTokens> findByIdAndIsDeleted(Long id, boolean isDeleted);
@@ -1,10 +1,12 @@
 package com.learn.ecommerce.repository;
 
 
+import com.learn.ecommerce.DTO.ProductDTO.ProductPopularityView;
 import com.learn.ecommerce.entity.OrderItem;
 import com.learn.ecommerce.entity.WebOrder;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +19,12 @@ public interface OrderItemsRepo extends JpaRepository<@NotNull OrderItem, @NotNu
 
 	Optional<OrderItem> findByIdAndIsDeleted(Long id, boolean isDeleted);
 	List<OrderItem> findAllByIsDeleted(boolean isDeleted);
+
+    @Query("""
+                SELECT oi.product.id AS productId, SUM(oi.quantity) AS unitsSold
+                FROM OrderItem oi
+                WHERE oi.isDeleted = false
+                GROUP BY oi.product.id
+          """)
+    List<ProductPopularityView> findProductPopularity();
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.learn.ecommerce.repository;
+
+import com.learn.ecommerce.entity.OrderSummary;
+import com.learn.ecommerce.enums.OrderStatus;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderSummaryRepo extends JpaRepository<@NotNull OrderSummary, @NotNull Long> {
+
+    @Query("""
+                SELECT s FROM OrderSummary s
+                WHERE s.userId = :userId AND s.isDeleted = false
+                ORDER BY s.createdAt DESC, s.orderId DESC
+          """)
+    List<OrderSummary> findPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+                SELECT s FROM OrderSummary s
+                WHERE s.userId = :userId AND s.isDeleted = false
+                  AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId))
+                ORDER BY s.createdAt DESC, s.orderId DESC
+          """)
+    List<OrderSummary> findPageByUserIdBefore(@Param("userId") Long userId,
+                                              @Param("createdAt") Instant createdAt,
+                                              @Param("orderId") Long orderId,
+                                              Limit limit);
+
+    @Query("""
+                SELECT s FROM OrderSummary s
+                WHERE s.orderStatus = :status AND s.isDeleted = false
+                ORDER BY s.createdAt DESC, s.orderId DESC
+          """)
+    List<OrderSummary> findPageByStatus(@Param("status") OrderStatus status, Limit limit);
+
+    @Query("""
+                SELECT s FROM OrderSummary s
+                WHERE s.orderStatus = :status AND s.isDeleted = false
+                  AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId))
+                ORDER BY s.createdAt DESC, s.orderId DESC
+          """)
+    List<OrderSummary> findPageByStatusBefore(@Param("status") OrderStatus status,
+                                              @Param("createdAt") Instant createdAt,
+                                              @Param("orderId") Long orderId,
+                                              Limit limit);
+}
@@ -1,19 +1,24 @@
 package com.learn.ecommerce.repository;
 
 
+import com.learn.ecommerce.DTO.ProductDTO.ProductFacetView;
+import com.learn.ecommerce.DTO.ProductDTO.ProductSearchView;
 import com.learn.ecommerce.entity.Product;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepo extends JpaRepository<@NotNull Product, @NotNull Long> , JpaSpecificationExecutor<@NotNull Product> {
+public interface ProductRepo extends JpaRepository<@NotNull Product, @NotNull Long> , JpaSpecificationExecutor<@NotNull Product>, ProductRepoCustom {
 
 
+    @EntityGraph(attributePaths = {"inventory", "category"})
     @Query("""
                 SELECT p FROM Product p
                 WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) AND p.isDeleted = false 
@@ -24,7 +29,20 @@ public interface ProductRepo extends JpaRepository<@NotNull Product, @NotNull Lo
     )
     List<Product> searchByName(@Param("query") String query);
 
+    @EntityGraph(attributePaths = {"inventory", "category"})
+    List<Product> findWithInventoryAndCategoryByIdIn(Collection<Long> ids);
+
     Optional<Product> findByIdAndIsDeleted(Long productId, boolean isDeleted);
 	List<Product> findAllByIsDeleted(boolean isDeleted);
 
-}
\ No newline at end of file
+    List<ProductSearchView> findAllByIsDeletedFalse();
+
+    @Query("""
+                SELECT p.id AS id, c.id AS categoryId, p.price AS price
+                FROM Product p LEFT JOIN p.category c
+                WHERE p.isDeleted = false
+          """)
+    List<ProductFacetView> findFacetViews();
+
+
+}
@@ -0,0 +1,18 @@
+package com.learn.ecommerce.repository;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductSummaryDTO;
+import com.learn.ecommerce.entity.Product;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepoCustom {
+
+    Page<@NotNull ProductSummaryDTO> findSummaries(Specification<@NotNull Product> spec, Pageable pageable);
+
+    List<ProductSummaryDTO> findSummaries(Specification<@NotNull Product> spec, Sort sort, int limit);
+}
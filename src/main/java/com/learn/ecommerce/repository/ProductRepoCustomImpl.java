@@ -0,0 +1,74 @@
+package com.learn.ecommerce.repository;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductSummaryDTO;
+import com.learn.ecommerce.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Listing queries that select only the columns shown on product pages
+ * instead of hydrating managed {@link Product} entities.
+ */
+public class ProductRepoCustomImpl implements ProductRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<@NotNull ProductSummaryDTO> findSummaries(Specification<@NotNull Product> spec, Pageable pageable) {
+        List<ProductSummaryDTO> content = entityManager.createQuery(summaryQuery(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<ProductSummaryDTO> findSummaries(Specification<@NotNull Product> spec, Sort sort, int limit) {
+        return entityManager.createQuery(summaryQuery(spec, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private CriteriaQuery<ProductSummaryDTO> summaryQuery(Specification<@NotNull Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummaryDTO> query = cb.createQuery(ProductSummaryDTO.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(cb.construct(ProductSummaryDTO.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("price"),
+                root.get("shortDescription")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        if (sort.isSorted()) query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return query;
+    }
+
+    private long count(Specification<@NotNull Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.Optional;
 
 public interface VerificationTokenRepo extends JpaRepository<@NotNull VerificationToken, @NotNull Long> {
-   Optional< VerificationToken> findByToken(String token);
-	Optional<VerificationToken> findByTokenAndIsDeleted(String token, boolean isDeleted);
+   Optional< VerificationToken> findByTokenHash(String tokenHash);
+	Optional<VerificationToken> findByTokenHashAndIsDeleted(String tokenHash, boolean isDeleted);
 	List<VerificationToken> findAllByIsDeleted(boolean isDeleted);
 }
\ No newline at end of file
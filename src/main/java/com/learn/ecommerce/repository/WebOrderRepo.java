@@ -5,8 +5,13 @@ import com.learn.ecommerce.entity.LocalUser;
 import com.learn.ecommerce.entity.WebOrder;
 import com.learn.ecommerce.enums.OrderStatus;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +27,18 @@ public interface WebOrderRepo extends JpaRepository<@NotNull WebOrder, @NotNull
 
     List<WebOrder> findByOrderStatus(OrderStatus orderStatus);
     List<WebOrder> findByUserIdAndIsDeletedFalse(Long userId);
+
+    // newest first, on ix_orders_user_created; items are fetched for these ids separately
+    @Query("""
+                SELECT o.id FROM WebOrder o
+                WHERE o.user.id = :userId AND o.isDeleted = false
+                ORDER BY o.createdAt DESC, o.id DESC
+          """)
+    List<Long> findRecentIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @EntityGraph(attributePaths = {"address", "orderItems"})
+    List<WebOrder> findWithItemsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"address", "orderItems"})
+    Optional<WebOrder> findWithItemsById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.entity.Product;
+import com.learn.ecommerce.exceptionhandler.InsufficientStockException;
+import com.learn.ecommerce.utils.HashedTimingWheel;
+import com.learn.ecommerce.utils.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional soft stock reservations for cart items ({@code cart.holds.enabled}).
+ * Adding or updating a cart line holds its quantity against the product's stock
+ * for {@code cart.holds.ttl-seconds}; a shortage is reported right there instead
+ * of at checkout. Holds live in memory and expire through a
+ * {@link HashedTimingWheel}, so nothing polls the database. Checkout only takes
+ * stock that other carts do not hold, so a held line cannot be sold from under
+ * its cart, and drops the cart's own holds once the transaction commits. Hot
+ * products are checked against their {@link HotStockService} counter, since
+ * their inventory row lags behind the flush.
+ */
+@Slf4j
+@Service
+public class CartHoldService {
+
+    private final HotStockService hotStockService;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final HashedTimingWheel<HoldKey> wheel;
+
+    private final Map<HoldKey, Integer> holds = new HashMap<>();
+    private final Map<Long, Long> heldByProduct = new HashMap<>();
+    private final Map<Long, Set<Long>> productsByCart = new HashMap<>();
+
+    public CartHoldService(HotStockService hotStockService,
+                           @Value("${cart.holds.enabled:false}") boolean enabled,
+                           @Value("${cart.holds.ttl-seconds:900}") long ttlSeconds) {
+        this.hotStockService = hotStockService;
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.wheel = enabled
+                ? new HashedTimingWheel<>("cart-hold-expiry", Duration.ofSeconds(1), 512, this::expire)
+                : null;
+    }
+
+    /**
+     * Sets the held quantity of a cart line. Raising a hold beyond what the
+     * product has left after other carts' holds throws
+     * {@link InsufficientStockException}; lowering always succeeds. The previous
+     * hold is restored if the surrounding transaction rolls back.
+     */
+    public synchronized void hold(Long cartId, Product product, int quantity) {
+        if (!enabled) return;
+
+        HoldKey key = new HoldKey(cartId, product.getId());
+        int previous = holds.getOrDefault(key, 0);
+        long others = heldByProduct.getOrDefault(product.getId(), 0L) - previous;
+        long stock = hotStockService.isHot(product.getId())
+                ? hotStockService.available(product.getId())
+                : product.getInventory() == null ? 0 : product.getInventory().getQuantity();
+        if (quantity > previous && quantity > stock - others) {
+            log.warn("Cannot hold {} of product {} for cart {}: stock={}, held by other carts={}",
+                    quantity, product.getId(), cartId, stock, others);
+            throw new InsufficientStockException("Insufficient stock for product " + product.getId());
+        }
+
+        set(key, quantity);
+        if (quantity > 0) wheel.schedule(key, ttl);
+        TransactionUtils.runAfterRollback(() -> restore(key, previous));
+    }
+
+    public void release(Long cartId, Long productId) {
+        if (!enabled) return;
+        HoldKey key = new HoldKey(cartId, productId);
+        TransactionUtils.runAfterCommit(() -> {
+            synchronized (this) {
+                set(key, 0);
+            }
+        });
+    }
+
+    /**
+     * Drops every hold of the cart once the transaction commits; used by checkout,
+     * where the real reservation has taken over, and by cart deletion.
+     */
+    public void releaseCart(Long cartId) {
+        if (!enabled) return;
+        TransactionUtils.runAfterCommit(() -> {
+            synchronized (this) {
+                Set<Long> products = productsByCart.get(cartId);
+                if (products == null) return;
+                for (Long productId : Set.copyOf(products)) set(new HoldKey(cartId, productId), 0);
+            }
+        });
+    }
+
+    /**
+     * Quantities of {@code productIds} held by carts other than {@code cartId};
+     * checkout must leave at least this much stock behind.
+     */
+    public synchronized Map<Long, Long> heldByOtherCarts(Long cartId, Collection<Long> productIds) {
+        if (!enabled) return Map.of();
+
+        Map<Long, Long> held = new HashMap<>();
+        for (Long productId : productIds) {
+            long others = heldByProduct.getOrDefault(productId, 0L) - holds.getOrDefault(new HoldKey(cartId, productId), 0);
+            if (others > 0) held.put(productId, others);
+        }
+        return held;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (wheel != null) wheel.close();
+    }
+
+    private synchronized void expire(HoldKey key) {
+        Integer quantity = holds.get(key);
+        if (quantity == null) return;
+        set(key, 0);
+        log.debug("Hold of {} for product {} in cart {} expired", quantity, key.productId(), key.cartId());
+    }
+
+    private synchronized void restore(HoldKey key, int quantity) {
+        set(key, quantity);
+        if (quantity > 0) wheel.schedule(key, ttl);
+    }
+
+    // callers hold the monitor
+    private void set(HoldKey key, int quantity) {
+        Integer old = holds.remove(key);
+        long delta = quantity - (old == null ? 0 : old);
+        if (delta != 0) heldByProduct.merge(key.productId(), delta, (a, b) -> a + b == 0 ? null : a + b);
+
+        if (quantity > 0) {
+            holds.put(key, quantity);
+            productsByCart.computeIfAbsent(key.cartId(), id -> new HashSet<>()).add(key.productId());
+            return;
+        }
+        wheel.cancel(key);
+        Set<Long> products = productsByCart.get(key.cartId());
+        if (products != null && products.remove(key.productId()) && products.isEmpty()) {
+            productsByCart.remove(key.cartId());
+        }
+    }
+
+    private record HoldKey(Long cartId, Long productId) {
+    }
+}
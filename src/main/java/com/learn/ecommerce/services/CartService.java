@@ -5,15 +5,15 @@ import com.learn.ecommerce.DTO.Cart.CartStatusDTO;
 import com.learn.ecommerce.DTO.Cart.UpdateQuantityDTO;
 import com.learn.ecommerce.DTO.CartItem.AddItemDTO;
 import com.learn.ecommerce.DTO.CartItem.ItemDTO;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
 import com.learn.ecommerce.entity.*;
 import com.learn.ecommerce.enums.CartStatus;
 import com.learn.ecommerce.exceptionhandler.CartIsEmptyException;
-import com.learn.ecommerce.exceptionhandler.InsufficientStockException;
 import com.learn.ecommerce.exceptionhandler.ItemNotFoundException;
 import com.learn.ecommerce.exceptionhandler.ProductNotFoundException;
 import com.learn.ecommerce.repository.CartItemRepo;
 import com.learn.ecommerce.repository.CartRepo;
-import com.learn.ecommerce.repository.InventoryRepo;
+import com.learn.ecommerce.repository.LocalUserRepo;
 import com.learn.ecommerce.repository.ProductRepo;
 import jakarta.transaction.Transactional;
 import lombok.Getter;
@@ -22,7 +22,9 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -33,33 +35,40 @@ public class CartService {
     private final CartRepo cartRepo;
     private final CartItemRepo cartItemRepo;
     private final ProductRepo productRepo;
-    private final InventoryRepo inventoryRepo;
+    private final InventoryService inventoryService;
+    private final ProductCacheService productCacheService;
+    private final CartHoldService cartHoldService;
+    private final LocalUserRepo localUserRepo;
 
-    public CartService(CartRepo cartRepo, CartItemRepo cartItemRepo, ProductRepo productRepo, InventoryRepo inventoryRepo) {
+    public CartService(CartRepo cartRepo, CartItemRepo cartItemRepo, ProductRepo productRepo, InventoryService inventoryService,
+                       ProductCacheService productCacheService, CartHoldService cartHoldService, LocalUserRepo localUserRepo) {
         this.cartRepo = cartRepo;
         this.cartItemRepo = cartItemRepo;
         this.productRepo = productRepo;
-        this.inventoryRepo = inventoryRepo;
+        this.inventoryService = inventoryService;
+        this.productCacheService = productCacheService;
+        this.cartHoldService = cartHoldService;
+        this.localUserRepo = localUserRepo;
     }
 
     @Transactional
-    public CartDTO getCurrentActiveCart(LocalUser user) {
-        Optional<Cart> cartOptional = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE);
+    public CartDTO getCurrentActiveCart(AuthenticatedUser user) {
+        Optional<Cart> cartOptional = cartRepo.findWithItemsByUserIdAndStatus(user.id(), CartStatus.ACTIVE);
         if (cartOptional.isPresent()) {
             Cart cart = cartOptional.get();
             if (cart.isDeleted()) {
-                log.info("Active cart for user {} is deleted. Creating a new cart.", user.getId());
+                log.info("Active cart for user {} is deleted. Creating a new cart.", user.id());
                 Cart newCart = createNewCart(user);
                 return buildCartDTO(newCart, 0);
             }
 
             List<ItemDTO> itemListDTO = mappingListItemDTO(cart);
             double totalPrice = itemListDTO.stream().mapToDouble(ItemDTO::getTotalPrice).sum();
-            log.info("Fetched active cart for user {} with {} items", user.getId(), itemListDTO.size());
+            log.info("Fetched active cart for user {} with {} items", user.id(), itemListDTO.size());
             return buildCartDTO(cart, totalPrice, itemListDTO);
         }
 
-        log.info("No active cart found for user {}. Creating a new cart.", user.getId());
+        log.info("No active cart found for user {}. Creating a new cart.", user.id());
         Cart newCart = createNewCart(user);
         return buildCartDTO(newCart, 0);
     }
@@ -77,17 +86,17 @@ public class CartService {
         return buildCartDTO(cart, totalPrice, new ArrayList<>());
     }
 
-    private Cart createNewCart(LocalUser user) {
+    private Cart createNewCart(AuthenticatedUser user) {
         Cart newCart = new Cart();
-        newCart.setUser(user);
+        newCart.setUser(localUserRepo.getReferenceById(user.id()));
         newCart.setStatus(CartStatus.ACTIVE);
         newCart.setDeleted(false);
         cartRepo.save(newCart);
-        log.info("Created new cart for user {} with id {}", user.getId(), newCart.getId());
+        log.info("Created new cart for user {} with id {}", user.id(), newCart.getId());
         return newCart;
     }
 
-    public CartDTO createNewCartForUser(LocalUser user) {
+    public CartDTO createNewCartForUser(AuthenticatedUser user) {
         Cart newCart = createNewCart(user);
         return buildCartDTO(newCart, 0);
     }
@@ -109,8 +118,8 @@ public class CartService {
     }
 
     @Transactional
-    public CartStatusDTO addItemToCart(LocalUser user, AddItemDTO dto) {
-        Cart cart = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+    public CartStatusDTO addItemToCart(AuthenticatedUser user, AddItemDTO dto) {
+        Cart cart = cartRepo.findWithItemsByUserIdAndStatus(user.id(), CartStatus.ACTIVE)
                 .orElseGet(() -> createNewCart(user));
 
         Product product = productRepo.findById(dto.getProductId())
@@ -128,10 +137,12 @@ public class CartService {
                         .quantity(0)
                         .build());
 
+        cartHoldService.hold(cart.getId(), product, item.getQuantity() + dto.getQuantity());
         item.setQuantity(item.getQuantity() + dto.getQuantity());
         cartItemRepo.save(item);
+        if (!cart.getItems().contains(item)) cart.getItems().add(item);
 
-        log.info("Added product {} (quantity: {}) to cart {} for user {}", product.getId(), dto.getQuantity(), cart.getId(), user.getId());
+        log.info("Added product {} (quantity: {}) to cart {} for user {}", product.getId(), dto.getQuantity(), cart.getId(), user.id());
         return CartStatusDTO.builder()
                 .id(cart.getId())
                 .items(mappingListItemDTO(cart))
@@ -140,10 +151,10 @@ public class CartService {
     }
 
     @Transactional
-    public CartDTO checkoutCart(LocalUser user, Long cartId) {
-        Cart cart = cartRepo.findByIdAndUserId(user.getId(), cartId)
+    public CartDTO checkoutCart(AuthenticatedUser user, Long cartId) {
+        Cart cart = cartRepo.findWithItemsByIdAndUserId(cartId, user.id())
                 .orElseThrow(() -> {
-                    log.warn("No cart {} found for checkout for user {}", cartId, user.getId());
+                    log.warn("No cart {} found for checkout for user {}", cartId, user.id());
                     return new CartIsEmptyException("Cart items is empty, can't checkout cart");
                 });
 
@@ -152,30 +163,28 @@ public class CartService {
             throw new IllegalStateException("Cart status is not ACTIVE, can't checkout cart");
         }
 
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem item : cart.getItems()) {
             if (item.isDeleted()) continue;
-            Inventory inventory = item.getProduct().getInventory();
-            if (inventory.getQuantity() < item.getQuantity()) {
-                log.warn("Insufficient stock for product {} in cart {}", item.getProduct().getId(), cart.getId());
-                throw new InsufficientStockException("Insufficient stock for product ");
-            }
-            inventory.setQuantity(inventory.getQuantity() - item.getQuantity());
-            inventoryRepo.save(inventory);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        inventoryService.reserve(quantities, cartHoldService.heldByOtherCarts(cart.getId(), quantities.keySet()));
+        productCacheService.invalidateAll(quantities.keySet());
+        cartHoldService.releaseCart(cart.getId());
 
         cart.setStatus(CartStatus.CHECKED_OUT);
         cartRepo.save(cart);
         List<ItemDTO> itemListDTO = mappingListItemDTO(cart);
         double totalPrice = itemListDTO.stream().mapToDouble(ItemDTO::getTotalPrice).sum();
-        log.info("Checked out cart {} for user {} with {} items", cart.getId(), user.getId(), itemListDTO.size());
+        log.info("Checked out cart {} for user {} with {} items", cart.getId(), user.id(), itemListDTO.size());
         return buildCartDTO(cart, totalPrice, itemListDTO);
     }
 
     @Transactional
-    public CartStatusDTO updateCartItemQuantity(LocalUser user, Long itemId, UpdateQuantityDTO updateQuantityDTO) {
-        Cart cart = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+    public CartStatusDTO updateCartItemQuantity(AuthenticatedUser user, Long itemId, UpdateQuantityDTO updateQuantityDTO) {
+        Cart cart = cartRepo.findWithItemsByUserIdAndStatus(user.id(), CartStatus.ACTIVE)
                 .orElseThrow(() -> {
-                    log.warn("No active cart found for user {}", user.getId());
+                    log.warn("No active cart found for user {}", user.id());
                     return new AccessDeniedException("No active cart");
                 });
 
@@ -190,6 +199,7 @@ public class CartService {
             return deleteCartItem(user, itemId);
         }
 
+        cartHoldService.hold(cart.getId(), cartItem.getProduct(), updateQuantityDTO.getQuantity());
         cartItem.setQuantity(updateQuantityDTO.getQuantity());
         cartItemRepo.save(cartItem);
 
@@ -201,10 +211,10 @@ public class CartService {
     }
 
     @Transactional
-    public CartStatusDTO deleteCartItem(LocalUser user, Long cartItemId) {
-        Cart cart = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+    public CartStatusDTO deleteCartItem(AuthenticatedUser user, Long cartItemId) {
+        Cart cart = cartRepo.findByUserIdAndStatus(user.id(), CartStatus.ACTIVE)
                 .orElseThrow(() -> {
-                    log.warn("No active cart found for user {}", user.getId());
+                    log.warn("No active cart found for user {}", user.id());
                     return new AccessDeniedException("No active cart");
                 });
 
@@ -218,24 +228,26 @@ public class CartService {
         cart.getItems().remove(cartItem);
         cartRepo.save(cartItem.getCart());
         cartItemRepo.save(cartItem);
+        cartHoldService.release(cart.getId(), cartItem.getProduct().getId());
 
         log.info("Deleted cart item {} from cart {}", cartItemId, cart.getId());
         return CartStatusDTO.builder().statusMessage("Item deleted successfully").build();
     }
 
     @Transactional
-    public CartStatusDTO deleteCart(LocalUser user) {
-        Cart cart = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+    public CartStatusDTO deleteCart(AuthenticatedUser user) {
+        Cart cart = cartRepo.findByUserIdAndStatus(user.id(), CartStatus.ACTIVE)
                 .orElseThrow(() -> {
-                    log.warn("No active cart found for user {}", user.getId());
+                    log.warn("No active cart found for user {}", user.id());
                     return new AccessDeniedException("No active cart");
                 });
 
         cart.setDeleted(true);
         cart.getItems().forEach(item -> item.setDeleted(true));
         cartRepo.save(cart);
+        cartHoldService.releaseCart(cart.getId());
 
-        log.info("Deleted entire cart {} for user {}", cart.getId(), user.getId());
+        log.info("Deleted entire cart {} for user {}", cart.getId(), user.id());
         return CartStatusDTO.builder().statusMessage("Cart deleted successfully").build();
     }
 }
\ No newline at end of file
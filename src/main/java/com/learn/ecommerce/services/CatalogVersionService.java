@@ -0,0 +1,48 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.utils.ResourceVersion;
+import com.learn.ecommerce.utils.TransactionUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version of the product catalog used to validate listing ETags.
+ * Product, category and inventory writers call {@link #bump()} inside their
+ * transaction and the counter moves once it commits, so the version changes
+ * with every committed write no matter how long the transaction ran. The
+ * version is per instance and starts from a random boot id, like the product
+ * detail cache it sits next to.
+ */
+@Service
+public class CatalogVersionService {
+
+    private final String bootId = UUID.randomUUID().toString();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
+    public void bump() {
+        TransactionUtils.runAfterCommit(this::advance);
+    }
+
+    /**
+     * Version of a listing response: the catalog version combined with
+     * everything that shapes the page.
+     */
+    public ResourceVersion versionOf(Object... query) {
+        Instant modified = lastModified;
+        Object[] parts = new Object[query.length + 3];
+        parts[0] = "catalog";
+        parts[1] = bootId;
+        parts[2] = version.get();
+        System.arraycopy(query, 0, parts, 3, query.length);
+        return ResourceVersion.of(modified, parts);
+    }
+
+    private void advance() {
+        version.incrementAndGet();
+        lastModified = Instant.now();
+    }
+}
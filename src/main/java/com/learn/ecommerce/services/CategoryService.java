@@ -3,9 +3,11 @@ package com.learn.ecommerce.services;
 import com.learn.ecommerce.DTO.Category.AddCategoryDTO;
 import com.learn.ecommerce.DTO.Category.CategoryDTO;
 import com.learn.ecommerce.DTO.Category.CategoryStatusDTO;
+import com.learn.ecommerce.DTO.TableVersionView;
 import com.learn.ecommerce.entity.Category;
 import com.learn.ecommerce.exceptionhandler.CategoryNotFoundException;
 import com.learn.ecommerce.repository.CategoryRepo;
+import com.learn.ecommerce.utils.ResourceVersion;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +24,19 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepo categoryRepo;
+    private final ProductCacheService productCacheService;
+    private final ProductFacetService productFacetService;
+
+    public ResourceVersion getCategoryVersion(long id) {
+        return categoryRepo.findUpdatedAtById(id)
+                .map(updatedAt -> ResourceVersion.of(updatedAt, "category", id, updatedAt))
+                .orElse(null);
+    }
+
+    public ResourceVersion getCategoriesVersion() {
+        TableVersionView version = categoryRepo.findTableVersion();
+        return ResourceVersion.of(version.getLastModified(), "categories", version.getLastModified(), version.getRowCount());
+    }
 
     public CategoryDTO getCategoryById(long id) {
         Category category = categoryRepo.findById(id).orElse(null);
@@ -62,6 +77,7 @@ public class CategoryService {
         category.setName(addCategoryDTO.getName());
         category.setDescription(addCategoryDTO.getDescription());
         categoryRepo.save(category);
+        productFacetService.recordCategory(category.getId(), category.getName());
         log.info("Added new category: {} (id: {})", category.getName(), category.getId());
 
 	    return CategoryStatusDTO.builder()
@@ -84,6 +100,9 @@ public class CategoryService {
         if (addCategoryDTO.getName() != null) category.setName(addCategoryDTO.getName());
         if (addCategoryDTO.getDescription() != null) category.setDescription(addCategoryDTO.getDescription());
         categoryRepo.save(category);
+        // cached product details embed the category name
+        productCacheService.invalidateAll();
+        productFacetService.recordCategory(category.getId(), category.getName());
         log.info("Updated category: {} (id: {})", category.getName(), category.getId());
 
 
@@ -106,6 +125,8 @@ public class CategoryService {
         }
         category.setDeleted(true);
         categoryRepo.save(category);
+        productCacheService.invalidateAll();
+        productFacetService.removeCategory(category.getId());
         log.info("Deleted category: {} (id: {})", category.getName(), category.getId());
 	    return CategoryStatusDTO.builder()
                 .id(category.getId())
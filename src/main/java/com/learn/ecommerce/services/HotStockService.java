@@ -0,0 +1,238 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.exceptionhandler.InsufficientStockException;
+import com.learn.ecommerce.utils.StripedStockCounter;
+import com.learn.ecommerce.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in "hot SKU" mode for flash sales ({@code inventory.hot-sku.enabled}).
+ * Stock of the flagged products ({@code inventory.hot-sku.product-ids}) is held
+ * in {@link StripedStockCounter}s, so checkouts reserve in memory instead of
+ * queueing on the same inventory row.
+ * <p>
+ * Every reservation is journaled to {@code inventory_journal} in the checkout
+ * transaction and handed back to the counter if that transaction rolls back. A
+ * scheduled flush applies journaled amounts to {@code inventory.quantity} and
+ * deletes the applied rows in one transaction, then drops the flushed products
+ * from the product cache. The counters are seeded with
+ * {@code quantity - unflushed journal} once the beans are created, before the
+ * web server accepts requests, so a crash between commit and flush loses
+ * nothing and no checkout reaches a hot product before its counter exists.
+ * <p>
+ * The counters are the source of truth while the mode is on, which makes it
+ * single-node only: running several instances requires turning the mode off
+ * first, and the admin API rejects stock changes to hot products.
+ */
+@Slf4j
+@Service
+public class HotStockService implements SmartInitializingSingleton {
+
+    private static final int DELETE_CHUNK = 1000;
+
+    private static final String QUANTITY_SQL = "SELECT product_id, quantity FROM inventory WHERE product_id IN (:ids)";
+    private static final String PENDING_SQL = """
+            SELECT product_id, SUM(quantity) AS pending
+            FROM inventory_journal
+            WHERE product_id IN (:ids)
+            GROUP BY product_id
+            """;
+    private static final String JOURNAL_SQL = "INSERT INTO inventory_journal (product_id, quantity, created_at) VALUES (?, ?, ?)";
+    private static final String NEXT_BATCH_SQL = """
+            SELECT id, product_id, quantity
+            FROM inventory_journal
+            ORDER BY id
+            OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY
+            """;
+    private static final String APPLY_SQL = """
+            UPDATE inventory
+            SET quantity = quantity - ?, version = version + 1, updated_at = ?, updated_by = 'SYSTEM'
+            WHERE product_id = ?
+            """;
+    private static final String DELETE_SQL = "DELETE FROM inventory_journal WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCacheService productCacheService;
+    private final boolean enabled;
+    private final Set<Long> hotProductIds;
+    private final int stripes;
+    private final int flushBatchSize;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    public HotStockService(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedJdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ProductCacheService productCacheService,
+                           @Value("${inventory.hot-sku.enabled:false}") boolean enabled,
+                           @Value("${inventory.hot-sku.product-ids:}") List<Long> hotProductIds,
+                           @Value("${inventory.hot-sku.stripes:16}") int stripes,
+                           @Value("${inventory.hot-sku.flush-batch-size:5000}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCacheService = productCacheService;
+        this.enabled = enabled;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+        this.stripes = stripes;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    public void reconcile() {
+        if (!enabled || hotProductIds.isEmpty()) return;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Object> params = Map.of("ids", hotProductIds);
+            Map<Long, Long> quantities = new HashMap<>();
+            namedJdbcTemplate.query(QUANTITY_SQL, params,
+                    rs -> {
+                        quantities.put(rs.getLong("product_id"), rs.getLong("quantity"));
+                    });
+            Map<Long, Long> pending = new HashMap<>();
+            namedJdbcTemplate.query(PENDING_SQL, params,
+                    rs -> {
+                        pending.put(rs.getLong("product_id"), rs.getLong("pending"));
+                    });
+
+            for (Long productId : hotProductIds) {
+                if (!quantities.containsKey(productId)) {
+                    log.warn("Hot SKU product={} has no inventory row, ignoring", productId);
+                    continue;
+                }
+                long available = quantities.get(productId) - pending.getOrDefault(productId, 0L);
+                counters.put(productId, new StripedStockCounter(stripes, available));
+                log.info("Hot SKU product={} reconciled: quantity={}, unflushed={}, available={}",
+                        productId, quantities.get(productId), pending.getOrDefault(productId, 0L), available);
+            }
+        });
+        ready = true;
+    }
+
+    public boolean isHot(Long productId) {
+        return ready && counters.containsKey(productId);
+    }
+
+    public Set<Long> hotProductIds() {
+        return ready ? Set.copyOf(counters.keySet()) : Set.of();
+    }
+
+    /** Units of a hot product not yet reserved; 0 for products not in hot mode. */
+    public long available(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    /**
+     * Reserves hot-SKU lines in memory and journals them in the caller's
+     * transaction, leaving at least {@code heldElsewhere} units of each product
+     * in the counter. A short line throws {@link InsufficientStockException};
+     * lines already taken are returned to their counters on rollback.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities, Map<Long, Long> heldElsewhere) {
+        if (quantities.isEmpty()) return;
+
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        for (Map.Entry<Long, Integer> line : lines) {
+            StripedStockCounter counter = counters.get(line.getKey());
+            // taking the held units too and handing them straight back checks both in one atomic step
+            long held = heldElsewhere.getOrDefault(line.getKey(), 0L);
+            if (counter == null || !counter.tryReserve(line.getValue() + held)) {
+                log.warn("Insufficient stock for hot product={} requested={}", line.getKey(), line.getValue());
+                throw new InsufficientStockException("Insufficient stock for product " + line.getKey());
+            }
+            counter.release(held);
+            TransactionUtils.runAfterRollback(() -> counter.release(line.getValue()));
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.getKey());
+            ps.setInt(2, line.getValue());
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    /**
+     * Gives stock of hot products back, e.g. for cancelled orders. The amounts
+     * are journaled as negative reservations in the caller's transaction, so the
+     * next flush adds them to the inventory row, and return to the counters once
+     * it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.getKey());
+            ps.setInt(2, -line.getValue());
+            ps.setTimestamp(3, now);
+        });
+        TransactionUtils.runAfterCommit(() -> lines.forEach(line -> {
+            StripedStockCounter counter = counters.get(line.getKey());
+            if (counter != null) counter.release(line.getValue());
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-interval-ms:1000}")
+    public void flush() {
+        if (!ready) return;
+
+        Integer applied;
+        do {
+            applied = transactionTemplate.execute(status -> flushBatch());
+        } while (applied != null && applied == flushBatchSize);
+    }
+
+    private int flushBatch() {
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Long> totals = new TreeMap<>();
+        jdbcTemplate.query(NEXT_BATCH_SQL,
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                    totals.merge(rs.getLong("product_id"), rs.getLong("quantity"), Long::sum);
+                },
+                flushBatchSize);
+        if (ids.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(totals.entrySet());
+        jdbcTemplate.batchUpdate(APPLY_SQL, updates, updates.size(), (ps, total) -> {
+            ps.setLong(1, total.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, total.getKey());
+        });
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            namedJdbcTemplate.update(DELETE_SQL, Map.of("ids", ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK))));
+        }
+
+        productCacheService.invalidateAll(totals.keySet());
+        log.debug("Flushed {} journal rows into {} inventory rows", ids.size(), updates.size());
+        return ids.size();
+    }
+}
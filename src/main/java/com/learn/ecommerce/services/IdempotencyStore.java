@@ -0,0 +1,52 @@
+package com.learn.ecommerce.services;
+
+import java.time.Duration;
+
+/**
+ * Remembers the response of a request made with an {@code Idempotency-Key} so a
+ * retry gets the same answer instead of running the operation again.
+ */
+public interface IdempotencyStore {
+
+    enum ClaimStatus {
+        /** The caller owns the key and must call {@link #complete} or {@link #release} with the claim's owner. */
+        ACQUIRED,
+        /** A stored response for the same request is available. */
+        REPLAY,
+        /** The key was used for a different request. */
+        MISMATCH,
+        /** Another execution still holds the key after waiting. */
+        IN_PROGRESS
+    }
+
+    record StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * {@code owner} identifies an {@link ClaimStatus#ACQUIRED} claim and is null
+     * otherwise.
+     */
+    record Claim(ClaimStatus status, StoredResponse response, String owner) {
+
+        static Claim of(ClaimStatus status, StoredResponse response) {
+            return new Claim(status, response, null);
+        }
+    }
+
+    /**
+     * Claims {@code key} for the request identified by {@code fingerprint}. When
+     * another request holds the key, waits up to {@code wait} for its outcome.
+     */
+    Claim claim(String key, String fingerprint, Duration wait);
+
+    /**
+     * Stores the response, unless {@code owner} no longer holds the key because
+     * its claim expired and another execution took it over.
+     */
+    void complete(String key, String owner, StoredResponse response);
+
+    /**
+     * Gives up a claimed key without storing anything, so the next retry runs again.
+     */
+    void release(String key, String owner);
+}
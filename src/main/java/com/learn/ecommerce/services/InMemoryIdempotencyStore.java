@@ -0,0 +1,99 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.utils.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Single-node {@link IdempotencyStore}. Completed responses sit in a bounded,
+ * expiring cache; executions in flight are tracked as futures, so concurrent
+ * duplicates wait for the first one and replay its response.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedTtlCache<String, StoredResponse> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(MeterRegistry meterRegistry,
+                                    @Value("${idempotency.max-entries:100000}") int maxEntries,
+                                    @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.completed = new BoundedTtlCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        this.completed.bindTo(meterRegistry, "idempotency");
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            StoredResponse stored = completed.get(key);
+            if (stored != null) return replay(stored, fingerprint);
+
+            InFlight mine = new InFlight(UUID.randomUUID().toString(), fingerprint, new CompletableFuture<>());
+            InFlight existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                // the previous owner may have completed between the lookup and the claim
+                stored = completed.get(key);
+                if (stored != null) {
+                    inFlight.remove(key, mine);
+                    mine.future().complete(stored);
+                    return replay(stored, fingerprint);
+                }
+                return new Claim(ClaimStatus.ACQUIRED, null, mine.owner());
+            }
+
+            if (!existing.fingerprint().equals(fingerprint)) return Claim.of(ClaimStatus.MISMATCH, null);
+            try {
+                StoredResponse response = existing.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (response != null) return replay(response, fingerprint);
+                // the first execution failed and released the key: try to take it over
+            } catch (TimeoutException e) {
+                return Claim.of(ClaimStatus.IN_PROGRESS, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Claim.of(ClaimStatus.IN_PROGRESS, null);
+            } catch (ExecutionException e) {
+                log.warn("Idempotent execution for key {} failed", key, e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, String owner, StoredResponse response) {
+        InFlight mine = inFlight.get(key);
+        if (mine == null || !mine.owner().equals(owner)) {
+            log.warn("Idempotency key {} is no longer held by this execution, response not stored", key);
+            return;
+        }
+        completed.put(key, response);
+        inFlight.remove(key, mine);
+        mine.future().complete(response);
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        InFlight mine = inFlight.get(key);
+        if (mine == null || !mine.owner().equals(owner)) return;
+        inFlight.remove(key, mine);
+        mine.future().complete(null);
+    }
+
+    private static Claim replay(StoredResponse stored, String fingerprint) {
+        return stored.fingerprint().equals(fingerprint)
+                ? Claim.of(ClaimStatus.REPLAY, stored)
+                : Claim.of(ClaimStatus.MISMATCH, null);
+    }
+
+    private record InFlight(String owner, String fingerprint, CompletableFuture<StoredResponse> future) {
+    }
+}
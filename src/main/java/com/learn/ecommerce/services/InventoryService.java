@@ -0,0 +1,86 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.exceptionhandler.InsufficientStockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock reservation for checkout. All lines of an order are decremented with a
+ * single JDBC batch of conditional updates instead of loading and saving every
+ * {@link com.learn.ecommerce.entity.Inventory} row, so a line item costs one
+ * statement and concurrent buyers never hit optimistic-lock conflicts.
+ * Lines for products in hot-SKU mode are reserved through {@link HotStockService}.
+ * Stock held by other carts ({@link CartHoldService}) is never taken.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private static final String RESERVE_SQL = """
+            UPDATE inventory
+            SET quantity = quantity - ?, version = version + 1, updated_at = ?, updated_by = ?
+            WHERE product_id = ? AND quantity - ? >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditorAware<String> auditorAware;
+    private final HotStockService hotStockService;
+
+    /**
+     * Decrements stock for every product in {@code quantities} (product id to
+     * requested quantity), leaving at least {@code heldElsewhere} units of each
+     * product in stock. Must run inside the caller's transaction: when any
+     * product is short, an {@link InsufficientStockException} is thrown and the
+     * whole transaction, including the lines already decremented, rolls back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities, Map<Long, Long> heldElsewhere) {
+        if (quantities.isEmpty()) return;
+
+        // fixed product order keeps concurrent checkouts from deadlocking on row locks
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>();
+        Map<Long, Integer> hotLines = new HashMap<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            if (hotStockService.isHot(line.getKey())) hotLines.put(line.getKey(), line.getValue());
+            else lines.add(line);
+        }
+        hotStockService.reserve(hotLines, heldElsewhere);
+        if (lines.isEmpty()) return;
+
+        Timestamp now = Timestamp.from(Instant.now());
+        String auditor = auditorAware.getCurrentAuditor().orElse("SYSTEM");
+
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, now);
+            ps.setString(3, auditor);
+            ps.setLong(4, line.getKey());
+            ps.setLong(5, heldElsewhere.getOrDefault(line.getKey(), 0L));
+            ps.setInt(6, line.getValue());
+        });
+
+        int[] updated = counts.length == 0 ? new int[0] : counts[0];
+        for (int i = 0; i < lines.size(); i++) {
+            if (i >= updated.length || updated[i] != 1) {
+                Long productId = lines.get(i).getKey();
+                log.warn("Insufficient stock for product={} requested={}", productId, lines.get(i).getValue());
+                throw new InsufficientStockException("Insufficient stock for product " + productId);
+            }
+        }
+        log.debug("Reserved stock for {} products", lines.size());
+    }
+}
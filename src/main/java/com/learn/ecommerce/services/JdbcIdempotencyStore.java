@@ -0,0 +1,128 @@
+package com.learn.ecommerce.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Multi-node {@link IdempotencyStore} on the {@code idempotency_record} table.
+ * The primary key on the idempotency key decides which node runs a request;
+ * duplicates on any node poll the row until it is completed or released.
+ * In-progress rows expire after {@code idempotency.lock-seconds} so a crashed
+ * node does not block a key forever. The lease is never shorter than
+ * {@code idempotency.wait-seconds}, so a duplicate gives up waiting before it
+ * could take over a request that is still running. Each claim writes a random
+ * owner token, and only that owner can complete or release the row, so an
+ * execution whose lease was taken over cannot overwrite the new owner's result.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final long POLL_MILLIS = 50;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO idempotency_record (idempotency_key, fingerprint, owner_token, completed, expires_at)
+            VALUES (?, ?, ?, 0, ?)
+            """;
+    private static final String SELECT_SQL = """
+            SELECT fingerprint, completed, status_code, content_type, body, expires_at
+            FROM idempotency_record
+            WHERE idempotency_key = ?
+            """;
+    private static final String COMPLETE_SQL = """
+            UPDATE idempotency_record
+            SET completed = 1, status_code = ?, content_type = ?, body = ?, expires_at = ?
+            WHERE idempotency_key = ? AND owner_token = ? AND completed = 0
+            """;
+    private static final String RELEASE_SQL = "DELETE FROM idempotency_record WHERE idempotency_key = ? AND owner_token = ? AND completed = 0";
+    private static final String DELETE_EXPIRED_KEY_SQL = "DELETE FROM idempotency_record WHERE idempotency_key = ? AND expires_at < ?";
+    private static final String PURGE_SQL = "DELETE FROM idempotency_record WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                @Value("${idempotency.lock-seconds:120}") long lockSeconds,
+                                @Value("${idempotency.wait-seconds:30}") long waitSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.lockTimeout = Duration.ofSeconds(Math.max(lockSeconds, waitSeconds));
+        if (lockSeconds < waitSeconds) {
+            log.warn("idempotency.lock-seconds={} is shorter than idempotency.wait-seconds={}, using {}",
+                    lockSeconds, waitSeconds, waitSeconds);
+        }
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            try {
+                String owner = UUID.randomUUID().toString();
+                jdbcTemplate.update(INSERT_SQL, key, fingerprint, owner, Timestamp.from(Instant.now().plus(lockTimeout)));
+                return new Claim(ClaimStatus.ACQUIRED, null, owner);
+            } catch (DuplicateKeyException e) {
+                // someone else has or had this key
+            }
+
+            List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Row(
+                    rs.getString("fingerprint"),
+                    rs.getBoolean("completed"),
+                    new StoredResponse(rs.getString("fingerprint"), rs.getInt("status_code"),
+                            rs.getString("content_type"), rs.getBytes("body")),
+                    rs.getTimestamp("expires_at").toInstant()), key);
+            if (rows.isEmpty()) continue;   // released in the meantime
+
+            Row row = rows.get(0);
+            if (row.expiresAt().isBefore(Instant.now())) {
+                jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, key, Timestamp.from(Instant.now()));
+                continue;
+            }
+            if (!row.fingerprint().equals(fingerprint)) return Claim.of(ClaimStatus.MISMATCH, null);
+            if (row.completed()) return Claim.of(ClaimStatus.REPLAY, row.response());
+
+            if (System.nanoTime() >= deadline) return Claim.of(ClaimStatus.IN_PROGRESS, null);
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Claim.of(ClaimStatus.IN_PROGRESS, null);
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, String owner, StoredResponse response) {
+        int updated = jdbcTemplate.update(COMPLETE_SQL, response.status(), response.contentType(), response.body(),
+                Timestamp.from(Instant.now().plus(ttl)), key, owner);
+        if (updated == 0) log.warn("Idempotency key {} is no longer held by this execution, response not stored", key);
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, key, owner);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now()));
+        if (purged > 0) log.info("Purged {} expired idempotency records", purged);
+    }
+
+    private record Row(String fingerprint, boolean completed, StoredResponse response, Instant expiresAt) {
+    }
+}
@@ -27,6 +27,8 @@ public class JwtService {
 
     private Algorithm algorithm;
     private static final String USERNAME_KEY = "USERNAME";
+    private static final String USER_ID_KEY = "USER_ID";
+    private static final String TOKEN_EPOCH_KEY = "TOKEN_EPOCH";
     private static final String VERIFICATION_EMAIL_KEY = "VERIFICATION_EMAIL";
     private static final String PASSWORD_RESET_EMAIL_KEY = "PASSWORD_RESET_EMAIL";
 
@@ -39,6 +41,8 @@ public class JwtService {
     public String generateToken(LocalUser user) {
         String token = JWT.create()
                 .withClaim(USERNAME_KEY, user.getUsername())
+                .withClaim(USER_ID_KEY, user.getId())
+                .withClaim(TOKEN_EPOCH_KEY, user.getTokenEpoch())
                 .withClaim("ROLE", user.getUserRoles()
                         .stream()
                         .map(role -> role.getRoleName()).toList())
@@ -79,6 +83,23 @@ public class JwtService {
         }
     }
 
+    /**
+     * Verifies a login token and returns its claims. {@code userId} and
+     * {@code tokenEpoch} are null on tokens issued before they were added.
+     */
+    public LoginClaims getLoginClaims(String token) {
+        try {
+            DecodedJWT jwtDecoded = JWT.require(algorithm).withIssuer(issuer).build().verify(token);
+            return new LoginClaims(
+                    jwtDecoded.getClaim(USERNAME_KEY).asString(),
+                    jwtDecoded.getClaim(USER_ID_KEY).asLong(),
+                    jwtDecoded.getClaim(TOKEN_EPOCH_KEY).asInt());
+        } catch (Exception e) {
+            log.warn("Failed to decode JWT claims: {}", e.getMessage());
+            throw e;
+        }
+    }
+
     public String getVerificationEmail(String token) {
         try {
             DecodedJWT jwtDecoded = JWT.require(algorithm).withIssuer(issuer).build().verify(token);
@@ -99,6 +120,11 @@ public class JwtService {
         }
     }
 
+    public Instant getExpiresAt(String token) {
+        Date expiresAt = JWT.decode(token).getExpiresAt();
+        return expiresAt == null ? Instant.EPOCH : expiresAt.toInstant();
+    }
+
     public boolean isTokenExpired(String token) {
         try {
             Date expiresAt = JWT.decode(token).getExpiresAt();
@@ -110,4 +136,7 @@ public class JwtService {
             return true;
         }
     }
+
+    public record LoginClaims(String username, Long userId, Integer tokenEpoch) {
+    }
 }
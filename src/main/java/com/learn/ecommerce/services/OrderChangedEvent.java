@@ -0,0 +1,10 @@
+package com.learn.ecommerce.services;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link OrderService} whenever orders are created or changed;
+ * {@link OrderSummaryProjector} refreshes their read model rows after commit.
+ */
+public record OrderChangedEvent(Collection<Long> orderIds) {
+}
@@ -0,0 +1,54 @@
+package com.learn.ecommerce.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * One-time backfill of the product snapshot on order lines written before
+ * {@code order_item} recorded name and price. Runs after startup in small
+ * auto-committed chunks so it never holds long locks, and is a no-op once every
+ * row has a unit price. Rows are filled from the product's current price, the
+ * best information left for them.
+ */
+@Slf4j
+@Service
+public class OrderItemSnapshotBackfillService {
+
+    private static final String BACKFILL_SQL = """
+            UPDATE TOP (?) oi
+            SET product_name = p.name, unit_price = p.price, line_total = p.price * oi.quantity
+            FROM order_item oi
+            JOIN product p ON p.id = oi.product_id
+            WHERE oi.unit_price IS NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OrderItemSnapshotBackfillService(JdbcTemplate jdbcTemplate,
+                                            @Value("${orders.snapshot-backfill.enabled:true}") boolean enabled,
+                                            @Value("${orders.snapshot-backfill.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) return;
+
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(BACKFILL_SQL, batchSize);
+            total += updated;
+        } while (updated == batchSize);
+
+        if (total > 0) log.info("Backfilled price snapshot on {} order items", total);
+    }
+}
@@ -0,0 +1,235 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.Order.OrderDTO;
+import com.learn.ecommerce.DTO.Order.OrderPlacementDTO;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
+import com.learn.ecommerce.enums.CartStatus;
+import com.learn.ecommerce.enums.OrderPlacementStatus;
+import com.learn.ecommerce.exceptionhandler.*;
+import com.learn.ecommerce.repository.AddressRepo;
+import com.learn.ecommerce.repository.CartRepo;
+import com.learn.ecommerce.utils.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order placement. {@link #submit} does the cheap checks, queues a
+ * placement command and returns a handle right away; a fixed pool of workers
+ * takes commands off the queue one at a time and runs
+ * {@link OrderService#placeOrderFromCart} for each in its own transaction, as
+ * the submitting user so auditing matches the synchronous path.
+ * The worker count bounds how many checkouts hold a database connection at once,
+ * and a full queue is refused with {@link OrderQueueFullException} instead of
+ * letting requests pile up on servlet threads. Placements still in flight are
+ * tracked outside the status cache, so eviction never loses one a client is
+ * waiting on; outcomes are kept for {@code orders.async.status-ttl-seconds} so
+ * clients can poll them. On shutdown new submissions are refused and the
+ * workers finish the queue, for up to {@code orders.async.shutdown-timeout-seconds}.
+ */
+@Slf4j
+@Service
+public class OrderPlacementService {
+
+    private static final long POLL_MILLIS = 200;
+
+    private final OrderService orderService;
+    private final AddressRepo addressRepo;
+    private final CartRepo cartRepo;
+    private final BlockingQueue<PlacementCommand> queue;
+    private final Map<String, Placement> pending = new ConcurrentHashMap<>();
+    private final BoundedTtlCache<String, Placement> placements;
+    private final Duration shutdownTimeout;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    public OrderPlacementService(OrderService orderService,
+                                 AddressRepo addressRepo,
+                                 CartRepo cartRepo,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${orders.async.workers:4}") int workerCount,
+                                 @Value("${orders.async.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${orders.async.status-ttl-seconds:3600}") long statusTtlSeconds,
+                                 @Value("${orders.async.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds) {
+        this.orderService = orderService;
+        this.addressRepo = addressRepo;
+        this.cartRepo = cartRepo;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.shutdownTimeout = Duration.ofSeconds(shutdownTimeoutSeconds);
+        this.placements = new BoundedTtlCache<>(Math.max(queueCapacity * 10, 10_000), Duration.ofSeconds(statusTtlSeconds));
+        this.placements.bindTo(meterRegistry, "order-placements");
+        meterRegistry.gauge("orders.placement.queue.size", queue, BlockingQueue::size);
+
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::run, "order-placement-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Validates the request and queues it. Throws the same not-found exceptions as
+     * the synchronous path for a missing address or cart, and
+     * {@link OrderQueueFullException} when the queue is at capacity.
+     */
+    public OrderPlacementDTO submit(AuthenticatedUser user, Long addressId) {
+        if (!addressRepo.existsById(addressId)) {
+            log.warn("Address not found for addressId={}", addressId);
+            throw new AddressNotFoundException("Address not found");
+        }
+        if (cartRepo.findByUserIdAndStatus(user.id(), CartStatus.ACTIVE).isEmpty()) {
+            log.warn("No active cart found for user={}", user.username());
+            throw new CartIsEmptyException("No active cart found");
+        }
+
+        if (!running) {
+            log.warn("Order placement is shutting down, rejecting order for user={}", user.username());
+            throw new OrderQueueFullException("The server is shutting down, please retry shortly");
+        }
+
+        Placement placement = new Placement(UUID.randomUUID().toString(), user.id(), Instant.now());
+        pending.put(placement.handle, placement);
+        if (!queue.offer(new PlacementCommand(placement, user, addressId))) {
+            pending.remove(placement.handle);
+            log.warn("Order placement queue is full, rejecting order for user={}", user.username());
+            throw new OrderQueueFullException("Too many orders are being placed right now, please retry shortly");
+        }
+
+        log.info("Queued order placement handle={} for user={}", placement.handle, user.username());
+        return placement.toDTO();
+    }
+
+    public OrderPlacementDTO getPlacement(AuthenticatedUser user, String handle) {
+        Placement placement = pending.get(handle);
+        if (placement == null) placement = placements.get(handle);
+        if (placement == null || !placement.userId.equals(user.id())) {
+            throw new ItemNotFoundException("Order placement not found");
+        }
+        return placement.toDTO();
+    }
+
+    /**
+     * Stops taking submissions and lets the workers drain the queue. Workers
+     * still busy after the timeout are interrupted, and whatever is left in the
+     * queue is rejected.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            for (Thread worker : workers) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis > 0) worker.join(remainingMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.stream().filter(Thread::isAlive).forEach(Thread::interrupt);
+
+        List<PlacementCommand> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) log.warn("Shutting down with {} order placements still queued, rejecting them", left.size());
+        for (PlacementCommand command : left) {
+            complete(command.placement(), OrderPlacementStatus.REJECTED, null, "The server shut down before the order was placed");
+        }
+    }
+
+    private void run() {
+        // keep going after shutdown starts until the queue is empty
+        while (running || !queue.isEmpty()) {
+            PlacementCommand command;
+            try {
+                command = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;   // only interrupted once the shutdown timeout has passed
+            }
+            if (command != null) process(command);
+        }
+    }
+
+    private void process(PlacementCommand command) {
+        Placement placement = command.placement();
+        // workers have no request, so authenticate as the customer for auditing and access checks
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                command.user(), null, command.user().authorities()));
+        SecurityContextHolder.setContext(context);
+        try {
+            OrderDTO order = orderService.placeOrderFromCart(command.user(), command.addressId());
+            complete(placement, OrderPlacementStatus.CONFIRMED, order.getId(), null);
+        } catch (InsufficientStockException | ItemNotFoundException | AddressNotFoundException
+                 | CartIsEmptyException | AccessDeniedException | IllegalStateException e) {
+            log.info("Order placement handle={} rejected: {}", placement.handle, e.getMessage());
+            complete(placement, OrderPlacementStatus.REJECTED, null, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Order placement handle={} failed", placement.handle, e);
+            complete(placement, OrderPlacementStatus.REJECTED, null, "Order could not be placed");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // a finished placement moves into the expiring cache; it is in one map or the other at any time
+    private void complete(Placement placement, OrderPlacementStatus status, Long orderId, String message) {
+        placement.complete(status, orderId, message);
+        placements.put(placement.handle, placement);
+        pending.remove(placement.handle);
+    }
+
+    private record PlacementCommand(Placement placement, AuthenticatedUser user, Long addressId) {
+    }
+
+    private static final class Placement {
+        private final String handle;
+        private final Long userId;
+        private final Instant submittedAt;
+        private volatile OrderPlacementStatus status = OrderPlacementStatus.PENDING;
+        private volatile Long orderId;
+        private volatile String message;
+        private volatile Instant completedAt;
+
+        private Placement(String handle, Long userId, Instant submittedAt) {
+            this.handle = handle;
+            this.userId = userId;
+            this.submittedAt = submittedAt;
+        }
+
+        private void complete(OrderPlacementStatus status, Long orderId, String message) {
+            this.orderId = orderId;
+            this.message = message;
+            this.completedAt = Instant.now();
+            this.status = status;
+        }
+
+        private OrderPlacementDTO toDTO() {
+            return OrderPlacementDTO.builder()
+                    .handle(handle)
+                    .status(status.name())
+                    .orderId(orderId)
+                    .message(message)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
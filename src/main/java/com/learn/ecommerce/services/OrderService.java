@@ -1,22 +1,30 @@
 package com.learn.ecommerce.services;
 
-import com.learn.ecommerce.DTO.Order.OrderDTO;
-import com.learn.ecommerce.DTO.Order.OrderItemDTO;
+import com.learn.ecommerce.DTO.Order.*;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
 import com.learn.ecommerce.entity.*;
 import com.learn.ecommerce.enums.CartStatus;
 import com.learn.ecommerce.enums.OrderStatus;
 import com.learn.ecommerce.exceptionhandler.AddressNotFoundException;
-import com.learn.ecommerce.exceptionhandler.InsufficientStockException;
+import com.learn.ecommerce.exceptionhandler.InvalidCursorException;
 import com.learn.ecommerce.exceptionhandler.ItemNotFoundException;
 import com.learn.ecommerce.repository.*;
+import com.learn.ecommerce.utils.CursorUtils;
 import jakarta.transaction.Transactional;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,36 +32,54 @@ import java.util.stream.Collectors;
 @Service
 public class OrderService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_LIST_SIZE = 100;
+
     private final WebOrderRepo orderRepo;
     private final OrderItemsRepo orderItemRepo;
     private final CartRepo cartRepo;
     private final CartItemRepo cartItemRepo;
-    private final InventoryRepo inventoryRepo;
+    private final InventoryService inventoryService;
     private final ProductRepo productRepo;
     private final AddressRepo addressRepo;
+    private final ProductCacheService productCacheService;
+    private final CartHoldService cartHoldService;
+    private final OrderSummaryRepo orderSummaryRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LocalUserRepo localUserRepo;
 
     public OrderService(WebOrderRepo orderRepo,
                         OrderItemsRepo orderItemRepo,
                         CartRepo cartRepo,
                         CartItemRepo cartItemRepo,
-                        InventoryRepo inventoryRepo,
+                        InventoryService inventoryService,
                         ProductRepo productRepo,
-                        AddressRepo addressRepo) {
+                        AddressRepo addressRepo,
+                        ProductCacheService productCacheService,
+                        CartHoldService cartHoldService,
+                        OrderSummaryRepo orderSummaryRepo,
+                        ApplicationEventPublisher eventPublisher,
+                        LocalUserRepo localUserRepo) {
         this.orderRepo = orderRepo;
         this.orderItemRepo = orderItemRepo;
         this.cartRepo = cartRepo;
         this.cartItemRepo = cartItemRepo;
-        this.inventoryRepo = inventoryRepo;
+        this.inventoryService = inventoryService;
         this.productRepo = productRepo;
         this.addressRepo = addressRepo;
+        this.productCacheService = productCacheService;
+        this.cartHoldService = cartHoldService;
+        this.orderSummaryRepo = orderSummaryRepo;
+        this.eventPublisher = eventPublisher;
+        this.localUserRepo = localUserRepo;
     }
 
     // -------------------------
     // Place order from cart
     // -------------------------
     @Transactional
-    public OrderDTO placeOrderFromCart(LocalUser user, Long addressId) {
-        log.info("Placing order for user={} with addressId={}", user.getUsername(), addressId);
+    public OrderDTO placeOrderFromCart(AuthenticatedUser user, Long addressId) {
+        log.info("Placing order for user={} with addressId={}", user.username(), addressId);
 
 
 		/// /////// rethink about this logic
@@ -63,62 +89,56 @@ public class OrderService {
                     return new AddressNotFoundException("");
                 });
 
-        Cart cart = cartRepo.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+        Cart cart = cartRepo.findWithItemsByUserIdAndStatus(user.id(), CartStatus.ACTIVE)
                 .orElseThrow(() -> {
-                    log.warn("No active cart found for user={}", user.getUsername());
+                    log.warn("No active cart found for user={}", user.username());
                     return new AccessDeniedException("No active cart found");
                 });
 
         if (cart.getItems().isEmpty()) {
-            log.warn("Cart is empty for user={}", user.getUsername());
+            log.warn("Cart is empty for user={}", user.username());
             throw new ItemNotFoundException("Cart is empty");
         }
 
         WebOrder order = WebOrder.builder()
-                .user(user)
+                .user(localUserRepo.getReferenceById(user.id()))
                 .address(address)
                 .orderStatus(OrderStatus.PENDING)
                 .totalPrice(0.0)
                 .build();
 
         List<OrderItem> orderItems = new ArrayList<>();
+        Map<Long, Integer> quantities = new HashMap<>();
         double totalPrice = 0.0;
 
         for (CartItem cartItem : cart.getItems()) {
             if (cartItem.isDeleted()) continue;
 
-            Inventory inventory = cartItem.getProduct().getInventory();
-            if (inventory.getQuantity() < cartItem.getQuantity()) {
-                log.warn("Insufficient stock for product={} requested={} available={}",
-                        cartItem.getProduct().getName(), cartItem.getQuantity(), inventory.getQuantity());
-                throw new InsufficientStockException("Insufficient stock for product ");
-            }
-
-            // Deduct inventory
-            inventory.setQuantity(inventory.getQuantity() - cartItem.getQuantity());
-            inventoryRepo.save(inventory);
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
 
-            OrderItem orderItem = OrderItem.builder()
-                    .product(cartItem.getProduct())
-                    .quantity(cartItem.getQuantity())
-                    .webOrder(order)
-                    .build();
+            OrderItem orderItem = OrderItem.snapshotOf(cartItem.getProduct(), cartItem.getQuantity(), order);
 
             orderItems.add(orderItem);
-            totalPrice += cartItem.getQuantity() * cartItem.getProduct().getPrice();
+            totalPrice += orderItem.getLineTotal();
         }
 
+        // Deduct inventory for all lines in one batch; a short line rolls the order back
+        inventoryService.reserve(quantities, cartHoldService.heldByOtherCarts(cart.getId(), quantities.keySet()));
+        productCacheService.invalidateAll(quantities.keySet());
+        cartHoldService.releaseCart(cart.getId());
+
         order.setTotalPrice(totalPrice);
         order.setOrderItems(orderItems);
         orderRepo.save(order);
         orderItemRepo.saveAll(orderItems);
+        eventPublisher.publishEvent(new OrderChangedEvent(List.of(order.getId())));
 
         cart.getItems().forEach(item -> item.setDeleted(true));
         cart.setDeleted(true);
         cartRepo.save(cart);
 
         log.info("Order placed successfully for user={} orderId={} totalPrice={}",
-                user.getUsername(), order.getId(), totalPrice);
+                user.username(), order.getId(), totalPrice);
 
         return mapToDTO(order);
     }
@@ -126,33 +146,131 @@ public class OrderService {
     // -------------------------
     // Get orders for a user
     // -------------------------
-    public List<OrderDTO> getOrdersForUser(LocalUser user) {
-        log.info("Fetching orders for user={}", user.getUsername());
 
-        List<WebOrder> orders = orderRepo.findByUserIdAndIsDeletedFalse(user.getId());
-        log.info("Found {} orders for user={}", orders.size(), user.getUsername());
+    /**
+     * The {@value #MAX_LIST_SIZE} most recent orders with their items, newest
+     * first. Ids are paged first so the item fetch join never pages in memory;
+     * the full history is only available through {@link #getOrdersForUserByCursor}.
+     */
+    public List<OrderDTO> getOrdersForUser(AuthenticatedUser user) {
+        log.info("Fetching orders for user={}", user.username());
+
+        List<Long> ids = orderRepo.findRecentIdsByUserId(user.id(), Limit.of(MAX_LIST_SIZE));
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, WebOrder> byId = orderRepo.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(WebOrder::getId, order -> order));
+        log.info("Found {} orders for user={}", byId.size(), user.username());
+
+        return ids.stream().map(byId::get).filter(Objects::nonNull).map(this::mapToDTO).collect(Collectors.toList());
+    }
+
+    // -------------------------
+    // Get order summaries by cursor
+    // -------------------------
+
+    /**
+     * Keyset paged order history, newest first, served from the
+     * {@code order_summary} read model: each page is one range scan on
+     * (user_id, created_at, order_id). Items are only loaded by {@link #getOrderById}.
+     */
+    public OrderCursorPageDTO getOrdersForUserByCursor(AuthenticatedUser user, String cursor, int size) {
+        log.info("Fetching order summaries by cursor for user={} size={}", user.username(), size);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderSummaryRepo.findPageByUserId(user.id(), limit);
+        } else {
+            CursorPosition position = decodeCursor(cursor);
+            rows = orderSummaryRepo.findPageByUserIdBefore(user.id(), position.createdAt(), position.orderId(), limit);
+        }
+
+        OrderCursorPageDTO page = toCursorPage(rows, pageSize);
+        log.info("Fetched {} order summaries for user={}, hasNext={}", page.getContent().size(), user.username(), page.isHasNext());
+        return page;
+    }
+
+    /**
+     * Admin view of all orders in one status, newest first, from the read model.
+     */
+    public OrderCursorPageDTO getOrderSummariesByStatus(OrderStatus status, String cursor, int size) {
+        log.info("Fetching order summaries by cursor for status={} size={}", status, size);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderSummaryRepo.findPageByStatus(status, limit);
+        } else {
+            CursorPosition position = decodeCursor(cursor);
+            rows = orderSummaryRepo.findPageByStatusBefore(status, position.createdAt(), position.orderId(), limit);
+        }
+        return toCursorPage(rows, pageSize);
+    }
+
+    private static CursorPosition decodeCursor(String cursor) {
+        List<String> position = CursorUtils.decode(cursor, 2);
+        try {
+            return new CursorPosition(Instant.parse(position.get(0)), Long.valueOf(position.get(1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    private static OrderCursorPageDTO toCursorPage(List<OrderSummary> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummary> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getCreatedAt().toString(), String.valueOf(last.getOrderId()));
+        }
+
+        List<OrderSummaryDTO> content = page.stream()
+                .map(row -> OrderSummaryDTO.builder()
+                        .id(row.getOrderId())
+                        .orderStatus(row.getOrderStatus().name())
+                        .totalPrice(row.getTotalPrice())
+                        .createdAt(row.getCreatedAt())
+                        .itemCount(row.getItemCount())
+                        .shippingCity(row.getShippingCity())
+                        .build())
+                .toList();
+
+        return OrderCursorPageDTO.builder()
+                .content(content)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
 
-        return orders.stream().map(this::mapToDTO).collect(Collectors.toList());
+    private record CursorPosition(Instant createdAt, Long orderId) {
     }
 
     // -------------------------
     // Get single order
     // -------------------------
-    public OrderDTO getOrderById(LocalUser user, Long orderId) {
-        log.info("Fetching orderId={} for user={}", orderId, user.getUsername());
+    public OrderDTO getOrderById(AuthenticatedUser user, Long orderId) {
+        log.info("Fetching orderId={} for user={}", orderId, user.username());
 
-        WebOrder order = orderRepo.findById(orderId)
+        WebOrder order = orderRepo.findWithItemsById(orderId)
                 .orElseThrow(() -> {
                     log.warn("Order not found: orderId={}", orderId);
                     return new ItemNotFoundException("Order not found");
                 });
 
-        if (!order.getUser().getId().equals(user.getId())) {
-            log.warn("Access denied: user={} tried to access orderId={}", user.getUsername(), orderId);
+        if (!order.getUser().getId().equals(user.id())) {
+            log.warn("Access denied: user={} tried to access orderId={}", user.username(), orderId);
             throw new AccessDeniedException("You cannot access this order");
         }
 
-        log.info("Order fetched successfully: orderId={} for user={}", orderId, user.getUsername());
+        log.info("Order fetched successfully: orderId={} for user={}", orderId, user.username());
         return mapToDTO(order);
     }
 
@@ -162,13 +280,16 @@ public class OrderService {
     private OrderDTO mapToDTO(WebOrder order) {
         List<OrderItemDTO> items = order.getOrderItems().stream()
                 .filter(item -> !item.isDeleted())
+                .peek(item -> {
+                    if (item.getTotalPrice() == null) log.warn("Order item {} has no price snapshot yet", item.getId());
+                })
                 .map(item -> OrderItemDTO.builder()
                         .id(item.getId())
-                        .productId(item.getProduct().getId())
-                        .productName(item.getProduct().getName())
+                        .productId(item.getProductId())
+                        .productName(item.getProductName())
                         .quantity(item.getQuantity())
-                        .unitPrice(item.getProduct().getPrice())
-                        .totalPrice(item.getQuantity() * item.getProduct().getPrice())
+                        .unitPrice(item.getUnitPrice())
+                        .totalPrice(item.getTotalPrice())
                         .build())
                 .collect(Collectors.toList());
 
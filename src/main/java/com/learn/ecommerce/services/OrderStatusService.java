@@ -0,0 +1,245 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.Order.BulkOrderStatusDTO;
+import com.learn.ecommerce.DTO.Order.BulkOrderStatusReportDTO;
+import com.learn.ecommerce.DTO.Order.OrderStatusFailureDTO;
+import com.learn.ecommerce.enums.OrderStatus;
+import com.learn.ecommerce.exceptionhandler.InvalidStatusTransitionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Bulk order status transitions for fulfilment feeds. Transitions are checked
+ * against {@link OrderStatus#canTransitionTo} and applied as set-based UPDATEs
+ * in chunks of {@code orders.status.bulk-chunk-size}, one transaction per chunk.
+ * Every UPDATE repeats the allowed source statuses in its WHERE clause and
+ * returns the ids it changed, so an order moved concurrently is reported as a
+ * failure instead of being overwritten. Cancelling puts the orders' items back
+ * in stock in the same chunk transaction: one set-based UPDATE of
+ * {@code inventory} from the cancelled orders' lines, and hot-SKU products
+ * through {@link HotStockService}.
+ */
+@Slf4j
+@Service
+public class OrderStatusService {
+
+    private static final int MAX_CHUNK_SIZE = 2000; // SQL Server allows 2100 parameters per statement
+
+    private static final String SELECT_STATUS_SQL =
+            "SELECT id, order_status FROM orders WHERE id IN (:ids) AND is_deleted = 0";
+    private static final String UPDATE_BY_IDS_SQL = """
+            UPDATE orders
+            SET order_status = :target, updated_at = :now, updated_by = :auditor
+            OUTPUT inserted.id
+            WHERE id IN (:ids) AND order_status IN (:from) AND is_deleted = 0
+            """;
+    private static final String UPDATE_BY_STATUS_SQL = """
+            UPDATE TOP (:chunk) orders
+            SET order_status = :target, updated_at = :now, updated_by = :auditor
+            OUTPUT inserted.id
+            WHERE order_status = :from AND is_deleted = 0
+            """;
+
+    private static final String RESTOCK_SQL = """
+            UPDATE i
+            SET quantity = i.quantity + r.quantity, version = i.version + 1, updated_at = :now, updated_by = :auditor
+            OUTPUT inserted.product_id
+            FROM inventory i
+            JOIN (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM order_item
+                WHERE web_order_id IN (:ids) AND is_deleted = 0
+                GROUP BY product_id
+            ) r ON r.product_id = i.product_id
+            """;
+    private static final String RESTOCK_EXCEPT_HOT_SQL = RESTOCK_SQL + "WHERE i.product_id NOT IN (:hot)";
+    private static final String HOT_LINES_SQL = """
+            SELECT product_id, SUM(quantity) AS quantity
+            FROM order_item
+            WHERE web_order_id IN (:ids) AND is_deleted = 0 AND product_id IN (:hot)
+            GROUP BY product_id
+            """;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditorAware<String> auditorAware;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockService hotStockService;
+    private final ProductCacheService productCacheService;
+    private final int chunkSize;
+    private final int maxReportedFailures;
+
+    public OrderStatusService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              AuditorAware<String> auditorAware,
+                              ApplicationEventPublisher eventPublisher,
+                              HotStockService hotStockService,
+                              ProductCacheService productCacheService,
+                              @Value("${orders.status.bulk-chunk-size:500}") int chunkSize,
+                              @Value("${orders.status.max-reported-failures:1000}") int maxReportedFailures) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditorAware = auditorAware;
+        this.eventPublisher = eventPublisher;
+        this.hotStockService = hotStockService;
+        this.productCacheService = productCacheService;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    /**
+     * Moves the listed orders, or every order in {@code fromStatus}, to
+     * {@code targetStatus}. Exactly one of the two selectors must be given.
+     * Orders already in the target status are counted as unchanged, so a feed
+     * can safely resend a batch.
+     */
+    public BulkOrderStatusReportDTO transition(BulkOrderStatusDTO request) {
+        long start = System.nanoTime();
+        OrderStatus target = request.getTargetStatus();
+        boolean byIds = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        if (byIds == (request.getFromStatus() != null)) {
+            throw new InvalidStatusTransitionException("Provide either orderIds or fromStatus");
+        }
+
+        Report report = new Report(maxReportedFailures);
+        String auditor = auditorAware.getCurrentAuditor().orElse("SYSTEM");
+        if (byIds) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+            log.info("Moving {} orders to {}", ids.size(), target);
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                transactionTemplate.executeWithoutResult(status -> transitionChunk(chunk, target, auditor, report));
+            }
+        } else {
+            OrderStatus source = request.getFromStatus();
+            if (!source.canTransitionTo(target)) {
+                throw new InvalidStatusTransitionException("Cannot move orders from " + source + " to " + target);
+            }
+            log.info("Moving all {} orders to {}", source, target);
+            int updated;
+            do {
+                updated = transactionTemplate.execute(status -> transitionByStatus(source, target, auditor, report));
+            } while (updated == chunkSize);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Bulk transition to {} finished: updated={}, unchanged={}, failed={} in {} ms",
+                target, report.updated, report.unchanged, report.failed, elapsedMillis);
+        return BulkOrderStatusReportDTO.builder()
+                .targetStatus(target.name())
+                .updated(report.updated)
+                .unchanged(report.unchanged)
+                .failed(report.failed)
+                .failuresTruncated(report.truncated)
+                .failures(report.failures)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private void transitionChunk(List<Long> ids, OrderStatus target, String auditor, Report report) {
+        Map<Long, OrderStatus> current = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_STATUS_SQL, Map.of("ids", ids), rs -> {
+            current.put(rs.getLong("id"), OrderStatus.valueOf(rs.getString("order_status")));
+        });
+
+        List<Long> movable = new ArrayList<>();
+        Set<String> sources = new HashSet<>();
+        for (Long id : ids) {
+            OrderStatus status = current.get(id);
+            if (status == null) {
+                report.fail(id, "Order not found");
+            } else if (status == target) {
+                report.unchanged++;
+            } else if (!status.canTransitionTo(target)) {
+                report.fail(id, "Cannot move order from " + status + " to " + target);
+            } else {
+                movable.add(id);
+                sources.add(status.name());
+            }
+        }
+        if (movable.isEmpty()) return;
+
+        List<Long> updated = namedJdbcTemplate.queryForList(UPDATE_BY_IDS_SQL, Map.of(
+                "target", target.name(),
+                "now", Timestamp.from(Instant.now()),
+                "auditor", auditor,
+                "ids", movable,
+                "from", sources), Long.class);
+
+        Set<Long> updatedIds = new HashSet<>(updated);
+        for (Long id : movable) {
+            if (!updatedIds.contains(id)) report.fail(id, "Order status changed concurrently");
+        }
+        report.updated += updated.size();
+        if (target == OrderStatus.CANCELLED) restock(updated, auditor);
+        if (!updated.isEmpty()) eventPublisher.publishEvent(new OrderChangedEvent(updated));
+    }
+
+    private int transitionByStatus(OrderStatus source, OrderStatus target, String auditor, Report report) {
+        List<Long> updated = namedJdbcTemplate.queryForList(UPDATE_BY_STATUS_SQL, Map.of(
+                "chunk", chunkSize,
+                "target", target.name(),
+                "now", Timestamp.from(Instant.now()),
+                "auditor", auditor,
+                "from", source.name()), Long.class);
+        report.updated += updated.size();
+        if (target == OrderStatus.CANCELLED) restock(updated, auditor);
+        if (!updated.isEmpty()) eventPublisher.publishEvent(new OrderChangedEvent(updated));
+        return updated.size();
+    }
+
+    // runs in the chunk transaction, so stock comes back exactly when the cancellation commits
+    private void restock(List<Long> orderIds, String auditor) {
+        if (orderIds.isEmpty()) return;
+
+        Set<Long> hot = hotStockService.hotProductIds();
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", orderIds);
+        params.put("now", Timestamp.from(Instant.now()));
+        params.put("auditor", auditor);
+        if (!hot.isEmpty()) params.put("hot", hot);
+
+        List<Long> restocked = new ArrayList<>(namedJdbcTemplate.queryForList(
+                hot.isEmpty() ? RESTOCK_SQL : RESTOCK_EXCEPT_HOT_SQL, params, Long.class));
+        if (!hot.isEmpty()) {
+            Map<Long, Integer> hotLines = new HashMap<>();
+            namedJdbcTemplate.query(HOT_LINES_SQL, params, rs -> {
+                hotLines.put(rs.getLong("product_id"), rs.getInt("quantity"));
+            });
+            hotStockService.restock(hotLines);
+            restocked.addAll(hotLines.keySet());
+        }
+
+        productCacheService.invalidateAll(restocked);
+        log.debug("Restocked {} products for {} cancelled orders", restocked.size(), orderIds.size());
+    }
+
+    private static final class Report {
+        private final int maxFailures;
+        private final List<OrderStatusFailureDTO> failures = new ArrayList<>();
+        private long updated;
+        private long unchanged;
+        private long failed;
+        private boolean truncated;
+
+        private Report(int maxFailures) {
+            this.maxFailures = maxFailures;
+        }
+
+        private void fail(Long orderId, String message) {
+            failed++;
+            if (failures.size() < maxFailures) failures.add(new OrderStatusFailureDTO(orderId, message));
+            else truncated = true;
+        }
+    }
+}
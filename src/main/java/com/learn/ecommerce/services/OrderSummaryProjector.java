@@ -0,0 +1,129 @@
+package com.learn.ecommerce.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@code order_summary} read model. Each refresh recomputes the
+ * rows of the given orders from {@code orders}, {@code order_item} and
+ * {@code address} with one MERGE, so applying an event twice or out of order
+ * still ends in the current state. Events are applied after the order
+ * transaction commits, in a new transaction of their own because the committed
+ * one can no longer commit; a failed refresh is only logged and is repaired by
+ * the next change of that order or by {@link #rebuild()}.
+ */
+@Slf4j
+@Service
+public class OrderSummaryProjector {
+
+    private static final int MAX_IDS_PER_STATEMENT = 2000; // SQL Server allows 2100 parameters per statement
+
+    private static final String MERGE_SQL = """
+            MERGE order_summary AS t
+            USING (
+                SELECT o.id, o.user_id, o.order_status, o.total_price, o.is_deleted, o.created_at, o.updated_at,
+                       a.city AS shipping_city,
+                       (SELECT COUNT(*) FROM order_item oi WHERE oi.web_order_id = o.id AND oi.is_deleted = 0) AS item_count
+                FROM orders o
+                LEFT JOIN address a ON a.id = o.address_id
+                WHERE %s
+            ) AS s
+            ON t.order_id = s.id
+            WHEN MATCHED THEN UPDATE SET
+                user_id = s.user_id, order_status = s.order_status, total_price = s.total_price,
+                item_count = s.item_count, shipping_city = s.shipping_city, is_deleted = s.is_deleted,
+                created_at = s.created_at, updated_at = s.updated_at
+            WHEN NOT MATCHED THEN
+                INSERT (order_id, user_id, order_status, total_price, item_count, shipping_city, is_deleted,
+                        created_at, updated_at)
+                VALUES (s.id, s.user_id, s.order_status, s.total_price, s.item_count, s.shipping_city, s.is_deleted,
+                        s.created_at, s.updated_at);
+            """;
+    private static final String MERGE_BY_IDS_SQL = MERGE_SQL.formatted("o.id IN (:ids)");
+    private static final String MERGE_BY_RANGE_SQL = MERGE_SQL.formatted("o.id > :after AND o.id <= :upTo");
+    private static final String NEXT_RANGE_END_SQL = """
+            SELECT MAX(id) FROM (
+                SELECT id FROM orders WHERE id > ? ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY
+            ) AS chunk
+            """;
+    private static final String DELETE_ORPHANS_SQL = """
+            DELETE FROM order_summary WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.id = order_summary.order_id)
+            """;
+    private static final String IS_EMPTY_SQL = """
+            SELECT CASE WHEN EXISTS (SELECT 1 FROM orders) AND NOT EXISTS (SELECT 1 FROM order_summary)
+                        THEN 1 ELSE 0 END
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int rebuildBatchSize;
+
+    public OrderSummaryProjector(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 @Value("${orders.summary.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.rebuildBatchSize = Math.max(1, rebuildBatchSize);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void on(OrderChangedEvent event) {
+        try {
+            refresh(event.orderIds());
+        } catch (RuntimeException e) {
+            log.error("Could not refresh order summaries for orders {}", event.orderIds(), e);
+        }
+    }
+
+    public void refresh(Iterable<Long> orderIds) {
+        List<Long> chunk = new ArrayList<>();
+        for (Long id : orderIds) {
+            chunk.add(id);
+            if (chunk.size() == MAX_IDS_PER_STATEMENT) {
+                namedJdbcTemplate.update(MERGE_BY_IDS_SQL, Map.of("ids", chunk));
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) namedJdbcTemplate.update(MERGE_BY_IDS_SQL, Map.of("ids", chunk));
+    }
+
+    /**
+     * Recomputes the whole read model in id-ordered chunks of
+     * {@code orders.summary.rebuild-batch-size}, each auto-committed, then drops
+     * rows whose order no longer exists. Returns the number of orders processed.
+     */
+    public long rebuild() {
+        log.info("Rebuilding order summaries");
+        long processed = 0;
+        long after = 0;
+        while (true) {
+            Long upTo = jdbcTemplate.queryForObject(NEXT_RANGE_END_SQL, Long.class, after, rebuildBatchSize);
+            if (upTo == null) break;
+            processed += namedJdbcTemplate.update(MERGE_BY_RANGE_SQL, Map.of("after", after, "upTo", upTo));
+            after = upTo;
+        }
+        int orphans = jdbcTemplate.update(DELETE_ORPHANS_SQL);
+        log.info("Rebuilt {} order summaries, removed {} orphaned rows", processed, orphans);
+        return processed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        Integer empty = jdbcTemplate.queryForObject(IS_EMPTY_SQL, Integer.class);
+        if (empty != null && empty == 1) rebuild();
+    }
+}
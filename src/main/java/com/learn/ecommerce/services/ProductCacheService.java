@@ -0,0 +1,66 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductDTO;
+import com.learn.ecommerce.utils.BoundedTtlCache;
+import com.learn.ecommerce.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of product detail DTOs keyed by product id.
+ * Writers call the invalidate methods inside their transaction; the entry
+ * is dropped once that transaction commits, and the catalog version moves
+ * with it.
+ */
+@Slf4j
+@Service
+public class ProductCacheService {
+
+    private final BoundedTtlCache<Long, ProductDTO> cache;
+    private final CatalogVersionService catalogVersionService;
+
+    public ProductCacheService(
+            MeterRegistry meterRegistry,
+            CatalogVersionService catalogVersionService,
+            @Value("${product.cache.max-size:10000}") int maxSize,
+            @Value("${product.cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.cache.bindTo(meterRegistry, "product.detail");
+        this.catalogVersionService = catalogVersionService;
+        log.info("Product detail cache initialized with maxSize={} ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    public ProductDTO get(Long productId, Supplier<ProductDTO> loader) {
+        ProductDTO cached = cache.get(productId);
+        if (cached != null) return cached;
+
+        long generation = cache.generation();
+        ProductDTO loaded = loader.get();
+        cache.putIfUnchanged(productId, loaded, generation);
+        return loaded;
+    }
+
+    public void invalidate(Long productId) {
+        TransactionUtils.runAfterCommit(() -> cache.invalidate(productId));
+        catalogVersionService.bump();
+    }
+
+    public void invalidateAll(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        TransactionUtils.runAfterCommit(() -> ids.forEach(cache::invalidate));
+        catalogVersionService.bump();
+    }
+
+    public void invalidateAll() {
+        TransactionUtils.runAfterCommit(cache::invalidateAll);
+        catalogVersionService.bump();
+    }
+}
@@ -0,0 +1,89 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductExportDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Streams the live catalog as NDJSON. Rows come from a forward-only, read-only
+ * Hibernate scroll over a constructor projection, so nothing is paged with
+ * OFFSET and memory use does not grow with the size of the catalog.
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+
+    private static final String EXPORT_QUERY = """
+            SELECT new com.learn.ecommerce.DTO.ProductDTO.ProductExportDTO(
+                   p.id, p.name, p.price, p.shortDescription, p.longDescription, i.quantity, c.id, c.name)
+            FROM Product p
+            LEFT JOIN p.inventory i
+            LEFT JOIN p.category c
+            WHERE p.isDeleted = false
+            ORDER BY p.id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ProductExportService(PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes one JSON object per line for every non-deleted product, in id order.
+     * Returns the number of exported rows.
+     */
+    public long exportProducts(OutputStream out) {
+        long start = System.currentTimeMillis();
+        Long exported = transactionTemplate.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            long rows = 0;
+            try (ScrollableResults<ProductExportDTO> results = session
+                    .createSelectionQuery(EXPORT_QUERY, ProductExportDTO.class)
+                    .setReadOnly(true)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+
+                OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+                while (results.next()) {
+                    buffered.write(objectMapper.writeValueAsBytes(results.get()));
+                    buffered.write('\n');
+                    if (++rows % fetchSize == 0) {
+                        session.clear();
+                        buffered.flush();
+                    }
+                }
+                buffered.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        log.info("Exported {} products in {} ms", exported, System.currentTimeMillis() - start);
+        return exported == null ? 0 : exported;
+    }
+}
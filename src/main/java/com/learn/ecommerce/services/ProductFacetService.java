@@ -0,0 +1,211 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.CategoryFacetDTO;
+import com.learn.ecommerce.DTO.ProductDTO.PriceBucketFacetDTO;
+import com.learn.ecommerce.DTO.ProductDTO.ProductFacetView;
+import com.learn.ecommerce.DTO.ProductDTO.ProductFacetsDTO;
+import com.learn.ecommerce.entity.Category;
+import com.learn.ecommerce.repository.CategoryRepo;
+import com.learn.ecommerce.repository.ProductRepo;
+import com.learn.ecommerce.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Catalog facet counts (products per category and per price bucket) kept in
+ * memory. The aggregate is loaded once at startup and then adjusted by the
+ * product write paths, so listing requests never run a GROUP BY.
+ * <p>
+ * Counts follow the listing's filters the usual faceted-search way: category
+ * counts apply the price filter and price bucket counts apply the category
+ * filter, so each count is what the listing returns when that facet value is
+ * picked. Deleted categories are not reported.
+ */
+@Slf4j
+@Service
+public class ProductFacetService {
+
+    private static final long UNCATEGORIZED = -1L;
+
+    private final ProductRepo productRepo;
+    private final CategoryRepo categoryRepo;
+    private final double[] bucketBounds;
+
+    private final Map<Long, FacetState> products = new HashMap<>();
+    private final Map<Long, Long> categoryCounts = new ConcurrentHashMap<>();
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+    private final AtomicLongArray bucketCounts;
+
+    public ProductFacetService(
+            ProductRepo productRepo,
+            CategoryRepo categoryRepo,
+            @Value("${product.facets.price-buckets:0,100,500,1000,5000,10000}") double[] bucketBounds
+    ) {
+        this.productRepo = productRepo;
+        this.categoryRepo = categoryRepo;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+        this.bucketCounts = new AtomicLongArray(this.bucketBounds.length);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        products.clear();
+        categoryCounts.clear();
+        categoryNames.clear();
+        for (int i = 0; i < bucketCounts.length(); i++) bucketCounts.set(i, 0);
+
+        for (Category category : categoryRepo.findAllByIsDeleted(false)) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+        for (ProductFacetView product : productRepo.findFacetViews()) {
+            apply(product.getId(), stateOf(product.getCategoryId(), product.getPrice()));
+        }
+        log.info("Product facets built for {} products across {} categories", products.size(), categoryCounts.size());
+    }
+
+    /**
+     * Records the current category and price of a live product once the
+     * surrounding transaction commits.
+     */
+    public void recordProduct(Long productId, Long categoryId, Double price) {
+        FacetState state = stateOf(categoryId, price);
+        TransactionUtils.runAfterCommit(() -> apply(productId, state));
+    }
+
+    public void removeProduct(Long productId) {
+        TransactionUtils.runAfterCommit(() -> apply(productId, null));
+    }
+
+    public void recordCategory(Long categoryId, String name) {
+        TransactionUtils.runAfterCommit(() -> categoryNames.put(categoryId, name));
+    }
+
+    /**
+     * Drops a deleted category from the category facets. Its products stay
+     * listed, so they keep counting in the price buckets.
+     */
+    public void removeCategory(Long categoryId) {
+        TransactionUtils.runAfterCommit(() -> categoryNames.remove(categoryId));
+    }
+
+    /**
+     * Facets for a listing filtered like {@code ProductService#getProducts}. An
+     * unfiltered listing is served from the running totals; a filtered one
+     * scans the in-memory product states, never the database.
+     */
+    public ProductFacetsDTO getFacets(Double priceMin, Double priceMax, String category, Collection<Long> categoryIds) {
+        boolean priceFiltered = priceMin != null || priceMax != null;
+        Set<Long> categoryFilter = categoryFilter(category, categoryIds);
+        if (!priceFiltered && categoryFilter == null) {
+            return toDTO(categoryCounts, bucketCounts::get);
+        }
+
+        Map<Long, Long> filteredCategoryCounts = new HashMap<>();
+        long[] filteredBucketCounts = new long[bucketBounds.length];
+        synchronized (this) {
+            for (FacetState state : products.values()) {
+                if (!priceFiltered || state.priceBetween(priceMin, priceMax)) {
+                    filteredCategoryCounts.merge(state.categoryKey(), 1L, Long::sum);
+                }
+                if (categoryFilter == null || categoryFilter.contains(state.categoryKey())) {
+                    filteredBucketCounts[state.bucket()]++;
+                }
+            }
+        }
+        return toDTO(filteredCategoryCounts, i -> filteredBucketCounts[i]);
+    }
+
+    /**
+     * Category keys the listing is restricted to, or {@code null} when it is
+     * not. A name filter and an id filter both apply, as in the listing query.
+     */
+    private Set<Long> categoryFilter(String category, Collection<Long> categoryIds) {
+        Set<Long> filter = null;
+        if (categoryIds != null && !categoryIds.isEmpty()) {
+            filter = new HashSet<>(categoryIds);
+        }
+        if (category != null) {
+            Set<Long> named = new HashSet<>();
+            categoryNames.forEach((id, name) -> {
+                if (name.equalsIgnoreCase(category)) named.add(id);
+            });
+            if (filter == null) filter = named;
+            else filter.retainAll(named);
+        }
+        return filter;
+    }
+
+    private ProductFacetsDTO toDTO(Map<Long, Long> countsByCategory, IntToLongFunction bucketCount) {
+        List<CategoryFacetDTO> categories = new ArrayList<>();
+        countsByCategory.forEach((key, count) -> {
+            if (count <= 0) return;
+            Long categoryId = key == UNCATEGORIZED ? null : key;
+            String categoryName = categoryId == null ? null : categoryNames.get(categoryId);
+            if (categoryId != null && categoryName == null) return; // deleted category
+            categories.add(CategoryFacetDTO.builder()
+                    .categoryId(categoryId)
+                    .categoryName(categoryName)
+                    .count(count)
+                    .build());
+        });
+        categories.sort(Comparator.comparingLong(CategoryFacetDTO::getCount).reversed());
+
+        List<PriceBucketFacetDTO> priceBuckets = new ArrayList<>();
+        for (int i = 0; i < bucketBounds.length; i++) {
+            priceBuckets.add(PriceBucketFacetDTO.builder()
+                    .min(bucketBounds[i])
+                    .max(i + 1 < bucketBounds.length ? bucketBounds[i + 1] : null)
+                    .count(bucketCount.applyAsLong(i))
+                    .build());
+        }
+
+        return ProductFacetsDTO.builder()
+                .categories(categories)
+                .priceBuckets(priceBuckets)
+                .build();
+    }
+
+    private synchronized void apply(Long productId, FacetState state) {
+        FacetState old = state == null ? products.remove(productId) : products.put(productId, state);
+        if (old != null) {
+            categoryCounts.merge(old.categoryKey(), -1L, Long::sum);
+            bucketCounts.decrementAndGet(old.bucket());
+        }
+        if (state != null) {
+            categoryCounts.merge(state.categoryKey(), 1L, Long::sum);
+            bucketCounts.incrementAndGet(state.bucket());
+        }
+    }
+
+    private FacetState stateOf(Long categoryId, Double price) {
+        return new FacetState(categoryKey(categoryId), bucketOf(price), price == null ? Double.NaN : price);
+    }
+
+    private int bucketOf(Double price) {
+        if (price == null) return 0;
+        int index = Arrays.binarySearch(bucketBounds, price);
+        int bucket = index >= 0 ? index : -index - 2;
+        return Math.max(bucket, 0);
+    }
+
+    private static long categoryKey(Long categoryId) {
+        return categoryId == null ? UNCATEGORIZED : categoryId;
+    }
+
+    /** {@code price} is NaN for a product without one, which no price filter matches. */
+    private record FacetState(long categoryKey, int bucket, double price) {
+
+        boolean priceBetween(Double min, Double max) {
+            return (min == null || price >= min) && (max == null || price <= max);
+        }
+    }
+}
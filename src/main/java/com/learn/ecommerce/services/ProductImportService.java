@@ -0,0 +1,368 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.AddProductDTO;
+import com.learn.ecommerce.DTO.ProductDTO.ImportRowErrorDTO;
+import com.learn.ecommerce.DTO.ProductDTO.ProductImportReportDTO;
+import com.learn.ecommerce.entity.Category;
+import com.learn.ecommerce.entity.SequenceIds;
+import com.learn.ecommerce.repository.CategoryRepo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a supplier feed (CSV with a header row, or NDJSON) from the request
+ * body and inserts Product + Inventory rows with JDBC batches, one transaction
+ * per chunk. Rows are validated individually; a failing row is reported and
+ * skipped, a failing chunk is rolled back and all of its rows are reported.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_BATCH_SIZE = 2000; // SQL Server allows 2100 parameters per statement
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO product (name, price, short_description, long_description, category_id, is_deleted,
+                                 created_at, updated_at, created_by, updated_by)
+            VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_INVENTORY = """
+            INSERT INTO inventory (id, product_id, quantity, is_deleted, version,
+                                   created_at, updated_at, created_by, updated_by)
+            VALUES (?, ?, ?, 0, 0, ?, ?, ?, ?)
+            """;
+    private static final String NEXT_INVENTORY_ID_BLOCK = "SELECT NEXT VALUE FOR inventory_seq";
+    private static final String SELECT_BY_NAMES = "SELECT id, name FROM product WHERE name IN (:names)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepo categoryRepo;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuditorAware<String> auditorAware;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetService productFacetService;
+    private final ProductSuggestService productSuggestService;
+    private final CatalogVersionService catalogVersionService;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CategoryRepo categoryRepo,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                AuditorAware<String> auditorAware,
+                                ProductSearchIndex productSearchIndex,
+                                ProductFacetService productFacetService,
+                                ProductSuggestService productSuggestService,
+                                CatalogVersionService catalogVersionService,
+                                @Value("${product.import.batch-size:500}") int batchSize,
+                                @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepo = categoryRepo;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.auditorAware = auditorAware;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetService = productFacetService;
+        this.productSuggestService = productSuggestService;
+        this.catalogVersionService = catalogVersionService;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportReportDTO importProducts(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        log.info("Starting {} product import with batchSize={}", format, batchSize);
+
+        Set<Long> categoryIds = categoryRepo.findAllByIsDeleted(false).stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        String auditor = auditorAware.getCurrentAuditor().orElse("SYSTEM");
+        ImportProgress progress = new ImportProgress(maxReportedErrors);
+
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(line).stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+                    continue;
+                }
+
+                progress.totalRows++;
+                AddProductDTO product;
+                try {
+                    product = format == Format.CSV
+                            ? fromCsv(header, parseCsvLine(line))
+                            : objectMapper.readValue(line, AddProductDTO.class);
+                } catch (RuntimeException e) {
+                    progress.fail(lineNumber, "Unparseable row: " + e.getMessage());
+                    continue;
+                }
+
+                String error = validate(product, categoryIds);
+                if (error != null) {
+                    progress.fail(lineNumber, error);
+                    continue;
+                }
+
+                chunk.add(new ImportRow(lineNumber, product));
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, auditor, progress);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) flush(chunk, auditor, progress);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = progress.totalRows * 1000.0 / elapsedMillis;
+        log.info("Product import finished: total={}, imported={}, failed={}, elapsed={} ms, {} rows/s",
+                progress.totalRows, progress.importedRows, progress.failedRows, elapsedMillis, Math.round(rowsPerSecond));
+
+        return ProductImportReportDTO.builder()
+                .totalRows(progress.totalRows)
+                .importedRows(progress.importedRows)
+                .failedRows(progress.failedRows)
+                .errorsTruncated(progress.failedRows > progress.errors.size())
+                .errors(progress.errors)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private void flush(List<ImportRow> chunk, String auditor, ImportProgress progress) {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> insertChunk(chunk, auditor));
+        } catch (DataAccessException e) {
+            String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+            log.warn("Import chunk of {} rows starting at line {} rolled back: {}",
+                    chunk.size(), chunk.get(0).line(), e.getMostSpecificCause().getMessage());
+            chunk.forEach(row -> progress.fail(row.line(), message));
+            return;
+        }
+        if (result == null) return;
+
+        result.rejected().forEach(error -> progress.fail(error.getLine(), error.getMessage()));
+        progress.importedRows += result.inserted().size();
+
+        for (InsertedRow inserted : result.inserted()) {
+            AddProductDTO product = inserted.row().product();
+            productSearchIndex.index(inserted.id(), product.getName(), product.getShortDescription());
+            productSuggestService.index(inserted.id(), product.getName());
+            productFacetService.recordProduct(inserted.id(), product.getCategoryId(), product.getPrice());
+        }
+        if (!result.inserted().isEmpty()) catalogVersionService.bump();
+        log.debug("Imported chunk of {} rows", result.inserted().size());
+    }
+
+    private ChunkResult insertChunk(List<ImportRow> chunk, String auditor) {
+        List<ImportRowErrorDTO> rejected = new ArrayList<>();
+
+        // product names are unique and compared case-insensitively by the database collation
+        Map<String, ImportRow> byName = new LinkedHashMap<>();
+        for (ImportRow row : chunk) {
+            String key = nameKey(row.product().getName());
+            if (byName.putIfAbsent(key, row) != null) {
+                rejected.add(new ImportRowErrorDTO(row.line(), "Duplicate product name in import: " + row.product().getName()));
+            }
+        }
+
+        Map<String, Long> existing = findIdsByName(byName.values());
+        for (String key : existing.keySet()) {
+            ImportRow row = byName.remove(key);
+            rejected.add(new ImportRowErrorDTO(row.line(), "Product name already exists: " + row.product().getName()));
+        }
+
+        List<ImportRow> rows = new ArrayList<>(byName.values());
+        if (rows.isEmpty()) return new ChunkResult(List.of(), rejected);
+
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, rows, rows.size(), (ps, row) -> {
+            AddProductDTO product = row.product();
+            ps.setString(1, product.getName());
+            ps.setDouble(2, product.getPrice());
+            ps.setString(3, product.getShortDescription());
+            ps.setString(4, product.getLongDescription());
+            ps.setObject(5, product.getCategoryId(), Types.BIGINT);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+            ps.setString(8, auditor);
+            ps.setString(9, auditor);
+        });
+
+        Map<String, Long> ids = findIdsByName(rows);
+        List<InsertedRow> inserted = rows.stream()
+                .map(row -> new InsertedRow(ids.get(nameKey(row.product().getName())), row))
+                .toList();
+
+        Iterator<Long> inventoryIds = nextInventoryIds(inserted.size()).iterator();
+        jdbcTemplate.batchUpdate(INSERT_INVENTORY, inserted, inserted.size(), (ps, row) -> {
+            ps.setLong(1, inventoryIds.next());
+            ps.setLong(2, row.id());
+            ps.setInt(3, row.row().product().getQuantity());
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+            ps.setString(6, auditor);
+            ps.setString(7, auditor);
+        });
+
+        return new ChunkResult(inserted, rejected);
+    }
+
+    /**
+     * Takes inventory ids from the same sequence blocks Hibernate uses, one
+     * sequence call per {@link SequenceIds#ALLOCATION_SIZE} rows. Like the pooled
+     * optimizer, a value below the block size (the sequence's start value) does
+     * not cover a full block and is skipped.
+     */
+    private List<Long> nextInventoryIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            Long hi = jdbcTemplate.queryForObject(NEXT_INVENTORY_ID_BLOCK, Long.class);
+            if (hi == null || hi < SequenceIds.ALLOCATION_SIZE) continue;
+            for (long id = hi - SequenceIds.ALLOCATION_SIZE + 1; id <= hi && ids.size() < count; id++) ids.add(id);
+        }
+        return ids;
+    }
+
+    private Map<String, Long> findIdsByName(Collection<ImportRow> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        if (rows.isEmpty()) return ids;
+        List<String> names = rows.stream().map(row -> row.product().getName()).toList();
+        namedJdbcTemplate.query(SELECT_BY_NAMES, Map.of("names", names),
+                rs -> {
+                    ids.put(nameKey(rs.getString("name")), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    private String validate(AddProductDTO product, Set<Long> categoryIds) {
+        Set<ConstraintViolation<AddProductDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (product.getCategoryId() != null && !categoryIds.contains(product.getCategoryId())) {
+            return "Category " + product.getCategoryId() + " not found";
+        }
+        return null;
+    }
+
+    private static AddProductDTO fromCsv(List<String> header, List<String> values) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) row.put(header.get(i), value);
+        }
+        return AddProductDTO.builder()
+                .name(row.get("name"))
+                .price(row.containsKey("price") ? Double.valueOf(row.get("price")) : null)
+                .shortDescription(row.get("shortdescription"))
+                .longDescription(row.get("longdescription"))
+                .quantity(row.containsKey("quantity") ? Integer.valueOf(row.get("quantity")) : null)
+                .categoryId(row.containsKey("categoryid") ? Long.valueOf(row.get("categoryid")) : null)
+                .build();
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields and "" escapes.
+     * Records spanning several lines are not supported.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record ImportRow(long line, AddProductDTO product) {
+    }
+
+    private record InsertedRow(Long id, ImportRow row) {
+    }
+
+    private record ChunkResult(List<InsertedRow> inserted, List<ImportRowErrorDTO> rejected) {
+    }
+
+    private static class ImportProgress {
+        private final int maxReportedErrors;
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+
+        ImportProgress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void fail(long line, String message) {
+            failedRows++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowErrorDTO(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductSearchView;
+import com.learn.ecommerce.repository.ProductRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over product name and short description.
+ * Text is lowercased and split into tokens, and every substring of up to
+ * {@value #GRAM_SIZE} characters of each token is indexed, so a
+ * {@code LIKE '%q%'} style lookup becomes an intersection of posting lists
+ * followed by a cheap verification of the few remaining candidates.
+ */
+@Slf4j
+@Service
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    private final ProductRepo productRepo;
+
+    private volatile Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private volatile Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, Set<Long>> newPostings = new ConcurrentHashMap<>();
+        Map<Long, IndexedProduct> newDocuments = new ConcurrentHashMap<>();
+
+        for (ProductSearchView product : productRepo.findAllByIsDeletedFalse()) {
+            addDocument(newPostings, newDocuments, product.getId(), product.getName(), product.getShortDescription());
+        }
+
+        postings = newPostings;
+        documents = newDocuments;
+        ready = true;
+        log.info("Product search index built with {} products and {} grams in {} ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void index(Long id, String name, String shortDescription) {
+        removeDocument(postings, documents, id);
+        addDocument(postings, documents, id, name, shortDescription);
+        log.debug("Indexed product ID={} for search", id);
+    }
+
+    public synchronized void remove(Long id) {
+        removeDocument(postings, documents, id);
+        log.debug("Removed product ID={} from search index", id);
+    }
+
+    /**
+     * Returns the ids of all products whose name or short description contains
+     * the query (case-insensitive), ordered by product name.
+     */
+    public List<Long> search(String query) {
+        String normalized = normalize(query);
+        Map<Long, IndexedProduct> docs = documents;
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : queryGrams(normalized)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) return List.of();
+            lists.add(ids);
+        }
+
+        Collection<Long> candidates;
+        if (lists.isEmpty()) {
+            candidates = docs.keySet();
+        } else {
+            lists.sort(Comparator.comparingInt(Set::size));
+            candidates = new ArrayList<>();
+            outer:
+            for (Long id : lists.get(0)) {
+                for (int i = 1; i < lists.size(); i++) {
+                    if (!lists.get(i).contains(id)) continue outer;
+                }
+                candidates.add(id);
+            }
+        }
+
+        List<IndexedProduct> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            IndexedProduct doc = docs.get(id);
+            if (doc != null && doc.matches(normalized)) matches.add(doc);
+        }
+        matches.sort(Comparator.comparing(IndexedProduct::name, String.CASE_INSENSITIVE_ORDER));
+        return matches.stream().map(IndexedProduct::id).toList();
+    }
+
+    private static void addDocument(Map<String, Set<Long>> postings,
+                                    Map<Long, IndexedProduct> documents,
+                                    Long id, String name, String shortDescription) {
+        String normalizedName = normalize(name);
+        String normalizedShort = normalize(shortDescription);
+
+        Set<String> grams = new HashSet<>();
+        collectGrams(normalizedName, grams);
+        collectGrams(normalizedShort, grams);
+
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        documents.put(id, new IndexedProduct(id, name == null ? "" : name, normalizedName, normalizedShort, grams));
+    }
+
+    private static void removeDocument(Map<String, Set<Long>> postings,
+                                       Map<Long, IndexedProduct> documents,
+                                       Long id) {
+        IndexedProduct old = documents.remove(id);
+        if (old == null) return;
+        for (String gram : old.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(gram, ids);
+        }
+    }
+
+    private static void collectGrams(String text, Set<String> grams) {
+        for (String token : tokenize(text)) {
+            for (int n = 1; n <= GRAM_SIZE; n++) {
+                for (int i = 0; i + n <= token.length(); i++) {
+                    grams.add(token.substring(i, i + n));
+                }
+            }
+        }
+    }
+
+    // Every query token is covered by its longest indexed grams; the final
+    // contains() check in IndexedProduct.matches keeps the result exact.
+    private static Set<String> queryGrams(String query) {
+        Set<String> grams = new HashSet<>();
+        for (String token : tokenize(query)) {
+            if (token.length() <= GRAM_SIZE) {
+                grams.add(token);
+                continue;
+            }
+            for (int i = 0; i + GRAM_SIZE <= token.length(); i++) {
+                grams.add(token.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) tokens.add(text.substring(start));
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexedProduct(Long id, String name, String normalizedName,
+                                  String normalizedShortDescription, Set<String> grams) {
+        boolean matches(String query) {
+            return normalizedName.contains(query) || normalizedShortDescription.contains(query);
+        }
+    }
+}
@@ -5,11 +5,16 @@ import com.learn.ecommerce.entity.Category;
 import com.learn.ecommerce.entity.Inventory;
 import com.learn.ecommerce.entity.Product;
 import com.learn.ecommerce.exceptionhandler.CategoryNotFoundException;
+import com.learn.ecommerce.exceptionhandler.HotStockManagedException;
+import com.learn.ecommerce.exceptionhandler.InvalidCursorException;
 import com.learn.ecommerce.exceptionhandler.ProductNotFoundException;
 import com.learn.ecommerce.repository.CategoryRepo;
 import com.learn.ecommerce.repository.InventoryRepo;
 import com.learn.ecommerce.repository.JpaQueryLogic.ProductSpecification;
 import com.learn.ecommerce.repository.ProductRepo;
+import com.learn.ecommerce.utils.CursorUtils;
+import com.learn.ecommerce.utils.ResourceVersion;
+import com.learn.ecommerce.utils.TransactionUtils;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,11 +24,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.web.PagedModel;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,23 +42,36 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("name", "price", "id");
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final ProductRepo productRepo;
     private final InventoryRepo inventoryRepo;
     private final CategoryRepo categoryRepo;
-
-    public Page<@NotNull ProductDTO> getProducts(
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCacheService productCacheService;
+    private final ProductFacetService productFacetService;
+    private final ProductSuggestService productSuggestService;
+    private final CatalogVersionService catalogVersionService;
+    private final HotStockService hotStockService;
+
+    public ProductCatalogPageDTO getProducts(
             Double priceMin,
             Double priceMax,
+            String category,
+            List<Long> categoryIds,
             String sortBy,
             String direction,
             Pageable pageable
     ) {
-        log.info("Fetching products with priceMin={}, priceMax={}, sortBy={}, direction={}, page={}",
-                priceMin, priceMax, sortBy, direction, pageable.getPageNumber());
+        log.info("Fetching products with priceMin={}, priceMax={}, category={}, categoryIds={}, sortBy={}, direction={}, page={}",
+                priceMin, priceMax, category, categoryIds, sortBy, direction, pageable.getPageNumber());
 
         Specification<@NotNull Product> spec = Specification
                 .where(ProductSpecification.isNotDeleted())
-                .and(ProductSpecification.priceBetween(priceMin, priceMax));
+                .and(ProductSpecification.priceBetween(priceMin, priceMax))
+                .and(ProductSpecification.hasCategory(category))
+                .and(ProductSpecification.inCategories(categoryIds));
 
         Sort sort = Sort.unsorted();
         if (sortBy != null) {
@@ -65,20 +89,141 @@ public class ProductService {
                 sort
         );
 
-        Page<@NotNull ProductDTO> result = productRepo.findAll(spec, finalPageable)
-                .map(product -> ProductDTO.builder()
-                        .name(product.getName())
-                        .price(product.getPrice())
-                        .shortDescription(product.getShortDescription())
-                        .build());
+        Page<@NotNull ProductDTO> result = productRepo.findSummaries(spec, finalPageable)
+                .map(this::toListingDTO);
 
         log.info("Fetched {} products", result.getContent().size());
-        return result;
+        return ProductCatalogPageDTO.builder()
+                .content(result.getContent())
+                .page(new PagedModel.PageMetadata(result.getSize(), result.getNumber(),
+                        result.getTotalElements(), result.getTotalPages()))
+                .facets(productFacetService.getFacets(priceMin, priceMax, category, categoryIds))
+                .build();
+    }
+
+    /**
+     * Keyset variant of {@link #getProducts}: continues after the (sortKey, id)
+     * encoded in the cursor instead of skipping rows, and never runs a count query.
+     */
+    public ProductCursorPageDTO getProductsByCursor(
+            Double priceMin,
+            Double priceMax,
+            String category,
+            List<Long> categoryIds,
+            String sortBy,
+            String direction,
+            String cursor,
+            int size
+    ) {
+        log.info("Fetching products by cursor with priceMin={}, priceMax={}, sortBy={}, direction={}, size={}",
+                priceMin, priceMax, sortBy, direction, size);
+
+        String sortKey = sortBy == null ? "name" : sortBy;
+        if (!CURSOR_SORT_KEYS.contains(sortKey)) {
+            log.warn("Cursor paging requested with unsupported sort field {}", sortKey);
+            throw new InvalidCursorException("Cursor paging only supports sorting by name, price or id");
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        String directionKey = descending ? "desc" : "asc";
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+        Specification<@NotNull Product> spec = Specification
+                .where(ProductSpecification.isNotDeleted())
+                .and(ProductSpecification.priceBetween(priceMin, priceMax))
+                .and(ProductSpecification.hasCategory(category))
+                .and(ProductSpecification.inCategories(categoryIds));
+
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> position = CursorUtils.decode(cursor, 4);
+            if (!position.get(0).equals(sortKey) || !position.get(1).equals(directionKey)) {
+                log.warn("Cursor sort {} {} does not match requested sort {} {}",
+                        position.get(0), position.get(1), sortKey, directionKey);
+                throw new InvalidCursorException("Cursor does not match the requested sort order");
+            }
+            spec = spec.and(keysetAfter(sortKey, descending, position.get(2), position.get(3)));
+        }
+
+        Sort.Direction sortDirection = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = "id".equals(sortKey)
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sortKey).and(Sort.by(sortDirection, "id"));
+
+        List<ProductSummaryDTO> rows = productRepo.findSummaries(spec, sort, pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductSummaryDTO> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummaryDTO last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(sortKey, directionKey, sortValue(last, sortKey), String.valueOf(last.getId()));
+        }
+
+        List<ProductDTO> content = page.stream().map(this::toListingDTO).toList();
+
+        log.info("Fetched {} products by cursor, hasNext={}", content.size(), hasNext);
+        return ProductCursorPageDTO.builder()
+                .content(content)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Specification<@NotNull Product> keysetAfter(String sortKey, boolean descending, String value, String id) {
+        try {
+            Long lastId = Long.valueOf(id);
+            return switch (sortKey) {
+                case "price" -> ProductSpecification.after(sortKey, descending, Double.valueOf(value), lastId);
+                case "id" -> ProductSpecification.after(sortKey, descending, lastId, lastId);
+                default -> ProductSpecification.after(sortKey, descending, value, lastId);
+            };
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    private ProductDTO toListingDTO(ProductSummaryDTO summary) {
+        return ProductDTO.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .price(summary.getPrice())
+                .shortDescription(summary.getShortDescription())
+                .build();
+    }
+
+    private static String sortValue(ProductSummaryDTO product, String sortKey) {
+        return switch (sortKey) {
+            case "price" -> String.valueOf(product.getPrice());
+            case "id" -> String.valueOf(product.getId());
+            default -> product.getName();
+        };
+    }
+
+    /**
+     * Version of a single product's detail representation, hashed from the
+     * DTO itself, so a cache hit needs no query and equal tags always mean
+     * equal bodies.
+     */
+    public ResourceVersion getProductVersion(ProductDTO product) {
+        return ResourceVersion.of(null, "product", product.getId(), product.getName(), product.getPrice(),
+                product.getShortDescription(), product.getLongDescription(), product.getQuantity(),
+                product.getCategoryId(), product.getCategoryName());
+    }
+
+    /**
+     * Version of a listing response, see {@link CatalogVersionService}.
+     */
+    public ResourceVersion getCatalogVersion(Object... query) {
+        return catalogVersionService.versionOf(query);
     }
 
     public ProductDTO getProduct(Long id) {
         log.info("Fetching product with ID={}", id);
+        return productCacheService.get(id, () -> loadProduct(id));
+    }
 
+    private ProductDTO loadProduct(Long id) {
         Product product = productRepo.findById(id).orElseThrow(() -> {
             log.warn("Product with ID={} not found", id);
             return new ProductNotFoundException("product not found");
@@ -91,6 +236,7 @@ public class ProductService {
 
         log.info("Product found: {}", product.getName());
         return ProductDTO.builder()
+                .id(product.getId())
                 .price(product.getPrice())
                 .name(product.getName())
                 .shortDescription(product.getShortDescription())
@@ -128,6 +274,14 @@ public class ProductService {
         inventory.setQuantity(productBody.getQuantity());
         inventoryRepo.save(inventory);
 
+        TransactionUtils.runAfterCommit(() -> productSearchIndex.index(
+                savedProduct.getId(), savedProduct.getName(), savedProduct.getShortDescription()));
+        productSuggestService.index(savedProduct.getId(), savedProduct.getName());
+        productFacetService.recordProduct(savedProduct.getId(),
+                savedProduct.getCategory() == null ? null : savedProduct.getCategory().getId(),
+                savedProduct.getPrice());
+        catalogVersionService.bump();
+
         log.info("Product {} added successfully with ID={}", savedProduct.getName(), savedProduct.getId());
         return ProductStatusDTO.builder()
                 .statusMessage("Product added successfully")
@@ -155,7 +309,14 @@ public class ProductService {
         if (productBody.getShortDescription() != null) product.setShortDescription(productBody.getShortDescription());
         if (productBody.getLongDescription() != null) product.setLongDescription(productBody.getLongDescription());
         if (productBody.getPrice() != null) product.setPrice(productBody.getPrice());
-        if (productBody.getQuantity() != null) product.getInventory().setQuantity(productBody.getQuantity());
+        if (productBody.getQuantity() != null && !productBody.getQuantity().equals(product.getInventory().getQuantity())) {
+            // a hot product's stock lives in its in-memory counter, which never sees a row update
+            if (hotStockService.isHot(id)) {
+                log.warn("Rejected stock change for hot product ID={}", id);
+                throw new HotStockManagedException("Stock of product " + id + " is managed in hot-SKU mode and cannot be edited");
+            }
+            product.getInventory().setQuantity(productBody.getQuantity());
+        }
 
         if (productBody.getCategoryId() != null) {
             Category category = categoryRepo.findById(productBody.getCategoryId())
@@ -168,6 +329,13 @@ public class ProductService {
         }
 
         productRepo.save(product);
+        productCacheService.invalidate(id);
+        TransactionUtils.runAfterCommit(() -> productSearchIndex.index(
+                product.getId(), product.getName(), product.getShortDescription()));
+        productSuggestService.index(product.getId(), product.getName());
+        productFacetService.recordProduct(product.getId(),
+                product.getCategory() == null ? null : product.getCategory().getId(),
+                product.getPrice());
         log.info("Product ID={} edited successfully", id);
 
         return ProductStatusDTO.builder()
@@ -184,6 +352,10 @@ public class ProductService {
         productRepo.findById(id).ifPresentOrElse(product -> {
             product.setDeleted(true);
             productRepo.save(product);
+            productCacheService.invalidate(id);
+            TransactionUtils.runAfterCommit(() -> productSearchIndex.remove(id));
+            productSuggestService.remove(id);
+            productFacetService.removeProduct(id);
             log.info("Product ID={} marked as deleted", id);
         }, () -> {
             log.warn("Product ID={} not found for deletion", id);
@@ -200,12 +372,22 @@ public class ProductService {
         log.info("Searching products with query='{}'", query);
 
         List<ProductDTO> productsDTO = new ArrayList<>();
-        List<Product> products = productRepo.searchByName(query);
+        List<Product> products;
+        if (productSearchIndex.isReady()) {
+            List<Long> ids = productSearchIndex.search(query);
+            Map<Long, Product> byId = productRepo.findWithInventoryAndCategoryByIdIn(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            products = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        } else {
+            log.warn("Product search index not ready yet, falling back to database search");
+            products = productRepo.searchByName(query);
+        }
 
         for (Product product : products) {
             if (product.isDeleted()) continue;
 
             productsDTO.add(ProductDTO.builder()
+                    .id(product.getId())
                     .price(product.getPrice())
                     .name(product.getName())
                     .shortDescription(product.getShortDescription())
@@ -248,6 +430,8 @@ public class ProductService {
 
         product.setCategory(category);
         productRepo.save(product);
+        productCacheService.invalidate(productId);
+        productFacetService.recordProduct(product.getId(), category.getId(), product.getPrice());
 
         log.info("Product ID={} category updated to {}", productId, category.getName());
 
@@ -0,0 +1,207 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.DTO.ProductDTO.ProductPopularityView;
+import com.learn.ecommerce.DTO.ProductDTO.ProductSearchView;
+import com.learn.ecommerce.DTO.ProductDTO.ProductSuggestionDTO;
+import com.learn.ecommerce.repository.OrderItemsRepo;
+import com.learn.ecommerce.repository.ProductRepo;
+import com.learn.ecommerce.utils.CompactPrefixTrie;
+import com.learn.ecommerce.utils.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Product name autocomplete served from a {@link CompactPrefixTrie} snapshot,
+ * ranked by units sold. Product writes are applied to a small overlay on top of
+ * the snapshot (new or renamed products, plus ids the snapshot must hide); once
+ * the overlay grows past the configured threshold it is folded into a fresh
+ * snapshot in the background and published with a volatile swap. Lookups never
+ * touch the database.
+ */
+@Slf4j
+@Service
+public class ProductSuggestService {
+
+    private static final int PRECOMPUTE_THRESHOLD = 64;
+
+    private final ProductRepo productRepo;
+    private final OrderItemsRepo orderItemsRepo;
+    private final int topK;
+    private final int compactThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-suggest-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+
+    private volatile State state;
+
+    public ProductSuggestService(ProductRepo productRepo,
+                                 OrderItemsRepo orderItemsRepo,
+                                 @Value("${product.suggest.top-k:10}") int topK,
+                                 @Value("${product.suggest.compact-threshold:1000}") int compactThreshold) {
+        this.productRepo = productRepo;
+        this.orderItemsRepo = orderItemsRepo;
+        this.topK = topK;
+        this.compactThreshold = compactThreshold;
+        this.state = new State(CompactPrefixTrie.empty(topK), Map.of(), Set.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        State snapshot = state;
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (ProductPopularityView row : orderItemsRepo.findProductPopularity()) {
+            unitsSold.put(row.getProductId(), row.getUnitsSold());
+        }
+
+        List<CompactPrefixTrie.Entry> entries = new ArrayList<>();
+        for (ProductSearchView product : productRepo.findAllByIsDeletedFalse()) {
+            entries.add(entry(product.getId(), product.getName(), unitsSold.getOrDefault(product.getId(), 0L)));
+        }
+
+        publishBuilt(snapshot, CompactPrefixTrie.build(entries, topK, PRECOMPUTE_THRESHOLD));
+        log.info("Product suggest trie built with {} names in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns up to {@code limit} product names starting with {@code prefix}
+     * (case-insensitive), best sellers first.
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int size = Math.max(1, Math.min(limit, topK));
+        State current = state;
+
+        List<CompactPrefixTrie.Entry> matches = new ArrayList<>(
+                current.trie().top(key, size, current.hidden()::contains));
+        for (CompactPrefixTrie.Entry entry : current.overlay().values()) {
+            if (entry.key().startsWith(key)) matches.add(entry);
+        }
+        if (!current.overlay().isEmpty()) {
+            matches.sort(Comparator.comparingLong(CompactPrefixTrie.Entry::weight).reversed()
+                    .thenComparing(CompactPrefixTrie.Entry::key));
+        }
+
+        return matches.stream()
+                .limit(size)
+                .map(e -> ProductSuggestionDTO.builder().id(e.id()).name(e.label()).build())
+                .toList();
+    }
+
+    public void index(Long id, String name) {
+        TransactionUtils.runAfterCommit(() -> upsert(id, name));
+    }
+
+    public void remove(Long id) {
+        TransactionUtils.runAfterCommit(() -> delete(id));
+    }
+
+    private synchronized void upsert(Long id, String name) {
+        State current = state;
+        CompactPrefixTrie.Entry old = current.overlay().get(id);
+        long weight = old != null ? old.weight() : current.trie().weightOf(id);
+
+        Map<Long, CompactPrefixTrie.Entry> overlay = new HashMap<>(current.overlay());
+        overlay.put(id, entry(id, name, weight));
+        Set<Long> hidden = current.hidden();
+        if (current.trie().contains(id) && !hidden.contains(id)) {
+            hidden = new HashSet<>(hidden);
+            hidden.add(id);
+        }
+        publish(new State(current.trie(), overlay, hidden));
+    }
+
+    private synchronized void delete(Long id) {
+        State current = state;
+        Map<Long, CompactPrefixTrie.Entry> overlay = current.overlay();
+        if (overlay.containsKey(id)) {
+            overlay = new HashMap<>(overlay);
+            overlay.remove(id);
+        }
+        Set<Long> hidden = current.hidden();
+        if (current.trie().contains(id) && !hidden.contains(id)) {
+            hidden = new HashSet<>(hidden);
+            hidden.add(id);
+        }
+        publish(new State(current.trie(), overlay, hidden));
+    }
+
+    private void publish(State next) {
+        state = next;
+        if (next.overlay().size() + next.hidden().size() > compactThreshold
+                && !compactor.isShutdown() && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Folds the overlay into a fresh trie. The build runs without the monitor,
+     * so after-commit upserts are never blocked behind it.
+     */
+    private void compact() {
+        compactionQueued.set(false);
+        State snapshot = state;
+        if (snapshot.overlay().size() + snapshot.hidden().size() <= compactThreshold) return;
+
+        List<CompactPrefixTrie.Entry> entries = new ArrayList<>(snapshot.trie().size() + snapshot.overlay().size());
+        for (CompactPrefixTrie.Entry entry : snapshot.trie().entries()) {
+            if (!snapshot.hidden().contains(entry.id())) entries.add(entry);
+        }
+        entries.addAll(snapshot.overlay().values());
+
+        publishBuilt(snapshot, CompactPrefixTrie.build(entries, topK, PRECOMPUTE_THRESHOLD));
+        log.debug("Product suggest trie compacted to {} names", entries.size());
+    }
+
+    /**
+     * Swaps in a trie built from {@code snapshot}, keeping every write applied
+     * since: overlay entries added or replaced after the snapshot stay in the
+     * overlay, and the new trie hides ids those writes changed or removed.
+     */
+    private synchronized void publishBuilt(State snapshot, CompactPrefixTrie trie) {
+        State current = state;
+        Map<Long, CompactPrefixTrie.Entry> overlay = new HashMap<>();
+        Set<Long> hidden = new HashSet<>();
+        current.overlay().forEach((id, entry) -> {
+            if (snapshot.overlay().get(id) != entry) overlay.put(id, entry);
+        });
+        for (Long id : current.hidden()) {
+            if (!snapshot.hidden().contains(id) && trie.contains(id)) hidden.add(id);
+        }
+        snapshot.overlay().forEach((id, entry) -> {
+            if (current.overlay().get(id) != entry && trie.contains(id)) hidden.add(id);
+        });
+        state = new State(trie, overlay, hidden);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    private static CompactPrefixTrie.Entry entry(Long id, String name, long weight) {
+        return new CompactPrefixTrie.Entry(id, normalize(name), name, weight);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.stripLeading().toLowerCase(Locale.ROOT);
+    }
+
+    private record State(CompactPrefixTrie trie,
+                         Map<Long, CompactPrefixTrie.Entry> overlay,
+                         Set<Long> hidden) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.entity.SequenceIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-time migration of the tables whose ids moved from IDENTITY to pooled
+ * sequences (see {@link SequenceIds}). Schema update creates {@code <table>_seq}
+ * starting at 1 and leaves existing IDENTITY columns in place, so the first
+ * insert would either be refused or collide with an existing key. For each
+ * table this rebuilds an IDENTITY id column as a plain column, keeping its
+ * values, primary key, the foreign keys pointing at it and the indexes that
+ * include it, in one transaction; then it moves the sequence so its next block
+ * starts above {@code MAX(id)}. Runs once the beans are created, before the
+ * web server accepts requests; every step is a no-op when already done.
+ */
+@Slf4j
+@Service
+public class SequenceIdMigrationService implements SmartInitializingSingleton {
+
+    private static final List<String> TABLES = List.of("orders", "order_item", "cart_item", "inventory", "login_tokens");
+    private static final String TEMP_COLUMN = "id_rebuilt";
+
+    private static final String IS_IDENTITY_SQL = "SELECT COLUMNPROPERTY(OBJECT_ID(?), 'id', 'IsIdentity')";
+    private static final String ID_TYPE_SQL = """
+            SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = 'id'
+            """;
+    private static final String PRIMARY_KEY_SQL = """
+            SELECT name FROM sys.key_constraints WHERE type = 'PK' AND parent_object_id = OBJECT_ID(?)
+            """;
+    private static final String REFERENCING_KEYS_SQL = """
+            SELECT fk.name, OBJECT_NAME(fk.parent_object_id) AS table_name,
+                   COL_NAME(fkc.parent_object_id, fkc.parent_column_id) AS column_name,
+                   fk.delete_referential_action_desc AS on_delete, fk.update_referential_action_desc AS on_update
+            FROM sys.foreign_keys fk
+            JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id
+            WHERE fk.referenced_object_id = OBJECT_ID(?)
+            """;
+    private static final String INDEXES_ON_ID_SQL = """
+            SELECT i.name, i.is_unique, i.filter_definition, c.name AS column_name,
+                   ic.is_descending_key, ic.is_included_column
+            FROM sys.indexes i
+            JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id
+            JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+            WHERE i.object_id = OBJECT_ID(?) AND i.is_primary_key = 0
+              AND EXISTS (SELECT 1 FROM sys.index_columns x
+                          WHERE x.object_id = i.object_id AND x.index_id = i.index_id
+                            AND x.column_id = COLUMNPROPERTY(i.object_id, 'id', 'ColumnId'))
+            ORDER BY i.name, ic.is_included_column, ic.key_ordinal, ic.index_column_id
+            """;
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM %s";
+    private static final String SEQUENCE_SQL = """
+            SELECT CAST(current_value AS BIGINT) AS current_value, CAST(increment AS BIGINT) AS increment,
+                   CASE WHEN last_used_value IS NULL THEN 0 ELSE 1 END AS used
+            FROM sys.sequences WHERE name = ?
+            """;
+    private static final String CREATE_SEQUENCE_SQL = "CREATE SEQUENCE %s AS BIGINT START WITH %d INCREMENT BY %d";
+    private static final String RESTART_SEQUENCE_SQL = "ALTER SEQUENCE %s RESTART WITH %d INCREMENT BY %d";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public SequenceIdMigrationService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${jpa.sequence-migration.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+
+        for (String table : TABLES) {
+            Integer identity = jdbcTemplate.queryForObject(IS_IDENTITY_SQL, Integer.class, table);
+            if (identity == null) {
+                log.warn("Table {} has no id column, skipping its sequence migration", table);
+                continue;
+            }
+            if (identity == 1) transactionTemplate.executeWithoutResult(status -> dropIdentity(table));
+            alignSequence(table, table + "_seq");
+        }
+    }
+
+    /**
+     * SQL Server cannot remove IDENTITY from a column, so the ids are copied to
+     * a new column that replaces the old one. Everything that depends on the old
+     * column is dropped first and recreated on the new one.
+     */
+    private void dropIdentity(String table) {
+        String type = jdbcTemplate.queryForObject(ID_TYPE_SQL, String.class, table);
+        String primaryKey = jdbcTemplate.queryForObject(PRIMARY_KEY_SQL, String.class, table);
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(REFERENCING_KEYS_SQL, table);
+        Map<String, String> indexes = indexDefinitions(table);
+
+        for (Map<String, Object> fk : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE %s DROP CONSTRAINT %s".formatted(fk.get("table_name"), fk.get("name")));
+        }
+        indexes.keySet().forEach(index -> jdbcTemplate.execute("DROP INDEX %s ON %s".formatted(index, table)));
+        jdbcTemplate.execute("ALTER TABLE %s DROP CONSTRAINT %s".formatted(table, primaryKey));
+
+        jdbcTemplate.execute("ALTER TABLE %s ADD %s %s NULL".formatted(table, TEMP_COLUMN, type));
+        jdbcTemplate.execute("UPDATE %s SET %s = id".formatted(table, TEMP_COLUMN));
+        jdbcTemplate.execute("ALTER TABLE %s ALTER COLUMN %s %s NOT NULL".formatted(table, TEMP_COLUMN, type));
+        jdbcTemplate.execute("ALTER TABLE %s DROP COLUMN id".formatted(table));
+        jdbcTemplate.execute("EXEC sp_rename '%s.%s', 'id', 'COLUMN'".formatted(table, TEMP_COLUMN));
+
+        jdbcTemplate.execute("ALTER TABLE %s ADD CONSTRAINT %s PRIMARY KEY (id)".formatted(table, primaryKey));
+        indexes.values().forEach(jdbcTemplate::execute);
+        for (Map<String, Object> fk : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE %s ADD CONSTRAINT %s FOREIGN KEY (%s) REFERENCES %s (id) ON DELETE %s ON UPDATE %s"
+                    .formatted(fk.get("table_name"), fk.get("name"), fk.get("column_name"), table,
+                            referentialAction(fk.get("on_delete")), referentialAction(fk.get("on_update"))));
+        }
+        log.info("Rebuilt {}.id without IDENTITY", table);
+    }
+
+    // CREATE INDEX statements, by index name, for the secondary indexes that include the id column
+    private Map<String, String> indexDefinitions(String table) {
+        Map<String, List<Map<String, Object>>> columnsByIndex = new LinkedHashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(INDEXES_ON_ID_SQL, table)) {
+            columnsByIndex.computeIfAbsent((String) row.get("name"), name -> new ArrayList<>()).add(row);
+        }
+
+        Map<String, String> definitions = new LinkedHashMap<>();
+        columnsByIndex.forEach((index, columns) -> {
+            List<String> keys = new ArrayList<>();
+            List<String> included = new ArrayList<>();
+            for (Map<String, Object> column : columns) {
+                String name = (String) column.get("column_name");
+                if (Boolean.TRUE.equals(column.get("is_included_column"))) included.add(name);
+                else keys.add(Boolean.TRUE.equals(column.get("is_descending_key")) ? name + " DESC" : name);
+            }
+            Map<String, Object> first = columns.get(0);
+            StringBuilder sql = new StringBuilder("CREATE ")
+                    .append(Boolean.TRUE.equals(first.get("is_unique")) ? "UNIQUE " : "")
+                    .append("INDEX ").append(index).append(" ON ").append(table)
+                    .append(" (").append(String.join(", ", keys)).append(")");
+            if (!included.isEmpty()) sql.append(" INCLUDE (").append(String.join(", ", included)).append(")");
+            if (first.get("filter_definition") != null) sql.append(" WHERE ").append(first.get("filter_definition"));
+            definitions.put(index, sql.toString());
+        });
+        return definitions;
+    }
+
+    private static String referentialAction(Object description) {
+        return String.valueOf(description).replace('_', ' ');
+    }
+
+    /**
+     * The pooled optimizer treats a sequence value {@code v} as the block
+     * {@code v - ALLOCATION_SIZE + 1 .. v}, so the next value handed out must be
+     * at least {@code MAX(id) + ALLOCATION_SIZE}.
+     */
+    private void alignSequence(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL.formatted(table), Long.class);
+        long start = (maxId == null ? 0 : maxId) + SequenceIds.ALLOCATION_SIZE;
+
+        List<Map<String, Object>> state = jdbcTemplate.queryForList(SEQUENCE_SQL, sequence);
+        if (state.isEmpty()) {
+            jdbcTemplate.execute(CREATE_SEQUENCE_SQL.formatted(sequence, start, SequenceIds.ALLOCATION_SIZE));
+            log.info("Created sequence {} starting at {}", sequence, start);
+            return;
+        }
+
+        long current = ((Number) state.get(0).get("current_value")).longValue();
+        long increment = ((Number) state.get(0).get("increment")).longValue();
+        boolean used = ((Number) state.get(0).get("used")).intValue() == 1;
+        long next = used ? current + increment : current;
+        if (next < start || increment != SequenceIds.ALLOCATION_SIZE) {
+            long restart = Math.max(start, current + SequenceIds.ALLOCATION_SIZE);
+            jdbcTemplate.execute(RESTART_SEQUENCE_SQL.formatted(sequence, restart, SequenceIds.ALLOCATION_SIZE));
+            log.info("Restarted sequence {} at {} above {}.id", sequence, restart, table);
+        }
+    }
+}
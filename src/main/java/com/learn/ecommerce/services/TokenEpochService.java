@@ -0,0 +1,84 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.utils.BoundedTtlCache;
+import com.learn.ecommerce.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-user token epoch. Every login token carries the user's epoch at issue
+ * time; bumping {@code local_user.token_epoch} revokes all of the user's
+ * tokens at once with a single UPDATE, and validating a token only compares
+ * its epoch with the current one, on cache hits of {@link TokenValidationCache}
+ * too. Current epochs are cached for {@code auth.token-epoch.ttl-seconds},
+ * which bounds how long another instance keeps accepting tokens revoked
+ * elsewhere; a token newer than the cached epoch triggers a reload instead of
+ * being rejected.
+ */
+@Slf4j
+@Service
+public class TokenEpochService {
+
+    /** Returned for a user that does not exist; matches no token. */
+    public static final int UNKNOWN_USER = -1;
+
+    private static final String SELECT_SQL = "SELECT token_epoch FROM local_user WHERE id = ?";
+    private static final String BUMP_SQL = "UPDATE local_user SET token_epoch = token_epoch + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenValidationCache tokenValidationCache;
+    private final BoundedTtlCache<Long, Integer> epochs;
+
+    public TokenEpochService(JdbcTemplate jdbcTemplate,
+                             TokenValidationCache tokenValidationCache,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.token-epoch.max-size:100000}") int maxSize,
+                             @Value("${auth.token-epoch.ttl-seconds:30}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenValidationCache = tokenValidationCache;
+        this.epochs = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.epochs.bindTo(meterRegistry, "auth.token-epochs");
+    }
+
+    public int currentEpoch(Long userId) {
+        Integer epoch = epochs.get(userId);
+        if (epoch != null) return epoch;
+
+        long generation = epochs.generation();
+        List<Integer> rows = jdbcTemplate.queryForList(SELECT_SQL, Integer.class, userId);
+        if (rows.isEmpty()) return UNKNOWN_USER;
+        epochs.putIfUnchanged(userId, rows.get(0), generation);
+        return rows.get(0);
+    }
+
+    /**
+     * Current epoch for checking a token that carries {@code tokenEpoch}. A
+     * token ahead of the cached value was issued after a revocation this
+     * instance has not seen yet, so the epoch is read again from the database.
+     */
+    public int currentEpoch(Long userId, int tokenEpoch) {
+        int epoch = currentEpoch(userId);
+        if (epoch >= tokenEpoch) return epoch;
+
+        epochs.invalidate(userId);
+        return currentEpoch(userId);
+    }
+
+    /**
+     * Revokes every token issued to the user so far. Joins the caller's
+     * transaction; the in-memory epoch and validated tokens are dropped once it
+     * commits.
+     */
+    public void revokeAll(Long userId) {
+        jdbcTemplate.update(BUMP_SQL, userId);
+        TransactionUtils.runAfterCommit(() -> epochs.invalidate(userId));
+        tokenValidationCache.invalidateUser(userId);
+        log.info("Revoked all tokens of user {}", userId);
+    }
+}
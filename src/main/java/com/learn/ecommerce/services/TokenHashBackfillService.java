@@ -0,0 +1,106 @@
+package com.learn.ecommerce.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-time migration of {@code token_hash} on login and verification tokens
+ * written before tokens were looked up by digest. Rows are backfilled in small
+ * auto-committed chunks, like {@link OrderItemSnapshotBackfillService}; the
+ * digest is computed in SQL Server and matches
+ * {@link com.learn.ecommerce.utils.TokenHash}: SHA-256 of the ASCII token as
+ * lowercase hex. Each table then gets a unique index filtered on
+ * {@code token_hash IS NOT NULL}, so it can be built while old rows still lack
+ * a hash, and once none are left the column is made NOT NULL. Runs once the
+ * beans are created, before the web server accepts requests, so no lookup
+ * misses an old token; every step is a no-op when already done.
+ */
+@Slf4j
+@Service
+public class TokenHashBackfillService implements SmartInitializingSingleton {
+
+    private static final List<String> TABLES = List.of("login_tokens", "verification_token");
+
+    private static final String BACKFILL_SQL = """
+            UPDATE TOP (?) %s
+            SET token_hash = LOWER(CONVERT(CHAR(64), HASHBYTES('SHA2_256', CAST(token AS VARCHAR(MAX))), 2))
+            WHERE token_hash IS NULL
+            """;
+    private static final String COLUMN_SQL = """
+            SELECT DATA_TYPE, IS_NULLABLE
+            FROM INFORMATION_SCHEMA.COLUMNS
+            WHERE TABLE_NAME = ? AND COLUMN_NAME = 'token_hash'
+            """;
+    private static final String HAS_NULL_SQL = "SELECT CASE WHEN EXISTS (SELECT 1 FROM %s WHERE token_hash IS NULL) THEN 1 ELSE 0 END";
+    private static final String INDEX_EXISTS_SQL = "SELECT COUNT(*) FROM sys.indexes WHERE name = ? AND object_id = OBJECT_ID(?)";
+    private static final String CREATE_INDEX_SQL = "CREATE UNIQUE INDEX %s ON %s (token_hash) WHERE token_hash IS NOT NULL";
+    private static final String DROP_INDEX_SQL = "DROP INDEX %s ON %s";
+    private static final String NOT_NULL_SQL = "ALTER TABLE %s ALTER COLUMN token_hash %s(64) NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public TokenHashBackfillService(JdbcTemplate jdbcTemplate,
+                                    @Value("${auth.token-hash-backfill.enabled:true}") boolean enabled,
+                                    @Value("${auth.token-hash-backfill.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+
+        for (String table : TABLES) {
+            backfill(table);
+            migrateSchema(table);
+        }
+    }
+
+    private void backfill(String table) {
+        String sql = BACKFILL_SQL.formatted(table);
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql, batchSize);
+            total += updated;
+        } while (updated == batchSize);
+
+        if (total > 0) log.info("Backfilled token hash on {} rows of {}", total, table);
+    }
+
+    private void migrateSchema(String table) {
+        List<Map<String, Object>> column = jdbcTemplate.queryForList(COLUMN_SQL, table);
+        if (column.isEmpty()) {
+            log.warn("Table {} has no token_hash column, skipping its index", table);
+            return;
+        }
+
+        String index = "ux_" + table + "_token_hash";
+        boolean nullable = "YES".equals(column.get(0).get("IS_NULLABLE"));
+        Integer hasNull = jdbcTemplate.queryForObject(HAS_NULL_SQL.formatted(table), Integer.class);
+        if (nullable && hasNull != null && hasNull == 0) {
+            // SQL Server cannot alter a column an index depends on
+            if (indexExists(table, index)) jdbcTemplate.execute(DROP_INDEX_SQL.formatted(index, table));
+            jdbcTemplate.execute(NOT_NULL_SQL.formatted(table, column.get(0).get("DATA_TYPE")));
+            log.info("Made {}.token_hash NOT NULL", table);
+        }
+        if (!indexExists(table, index)) {
+            jdbcTemplate.execute(CREATE_INDEX_SQL.formatted(index, table));
+            log.info("Created unique index {} on {}.token_hash", index, table);
+        }
+    }
+
+    private boolean indexExists(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(INDEX_EXISTS_SQL, Integer.class, index, table);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.learn.ecommerce.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Retention job for {@code login_tokens} and {@code verification_token}. Rows
+ * that expired, or were revoked or used, more than
+ * {@code auth.token-purge.retention-days} ago are deleted in id order, at most
+ * {@code auth.token-purge.batch-size} per auto-committed statement, so the job
+ * never holds long locks. Each batch resumes after the last id it deleted.
+ * Deleted rows are counted in the {@code tokens.purged} metric, tagged by table.
+ */
+@Slf4j
+@Service
+public class TokenPurgeService {
+
+    private static final String PURGE_LOGIN_TOKENS_SQL = """
+            DELETE FROM login_tokens
+            OUTPUT deleted.id
+            WHERE id IN (
+                SELECT TOP (?) id FROM login_tokens
+                WHERE id > ?
+                  AND (expires_at < ? OR ((expired = 1 OR revoked = 1) AND updated_at < ?))
+                ORDER BY id
+            )
+            """;
+    private static final String PURGE_VERIFICATION_TOKENS_SQL = """
+            DELETE FROM verification_token
+            OUTPUT deleted.id
+            WHERE id IN (
+                SELECT TOP (?) id FROM verification_token
+                WHERE id > ?
+                  AND (expiry_date < ? OR (is_deleted = 1 AND updated_at < ?))
+                ORDER BY id
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final Counter loginTokensPurged;
+    private final Counter verificationTokensPurged;
+
+    public TokenPurgeService(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.token-purge.enabled:true}") boolean enabled,
+                             @Value("${auth.token-purge.retention-days:7}") long retentionDays,
+                             @Value("${auth.token-purge.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = Math.max(1, batchSize);
+        this.loginTokensPurged = purgedCounter(meterRegistry, "login_tokens");
+        this.verificationTokensPurged = purgedCounter(meterRegistry, "verification_token");
+    }
+
+    @Scheduled(fixedDelayString = "${auth.token-purge.interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) return;
+
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        long loginTokens = purge(PURGE_LOGIN_TOKENS_SQL, cutoff, loginTokensPurged);
+        long verificationTokens = purge(PURGE_VERIFICATION_TOKENS_SQL, cutoff, verificationTokensPurged);
+        if (loginTokens + verificationTokens > 0) {
+            log.info("Purged {} login tokens and {} verification tokens older than {}",
+                    loginTokens, verificationTokens, cutoff.toInstant());
+        }
+    }
+
+    private long purge(String sql, Timestamp cutoff, Counter counter) {
+        long total = 0;
+        long after = 0;
+        List<Long> deleted;
+        do {
+            deleted = jdbcTemplate.queryForList(sql, Long.class, batchSize, after, cutoff, cutoff);
+            if (deleted.isEmpty()) break;
+            after = Collections.max(deleted);
+            total += deleted.size();
+            counter.increment(deleted.size());
+        } while (deleted.size() == batchSize);
+        return total;
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("tokens.purged")
+                .description("Expired or revoked token rows deleted by the retention job")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
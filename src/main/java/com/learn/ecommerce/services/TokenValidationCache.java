@@ -0,0 +1,68 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.config.security.AuthenticatedUser;
+import com.learn.ecommerce.utils.BoundedTtlCache;
+import com.learn.ecommerce.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers bearer tokens that {@link com.learn.ecommerce.config.security.JwtRequestFilter}
+ * has fully validated (signature, login token row, revocation), keyed by the
+ * token's SHA-256 so raw tokens are never held. An entry never outlives its
+ * token. Each entry records the token epoch it was validated against, and
+ * the filter compares it with {@link TokenEpochService} on every hit, so a
+ * revocation on any instance takes effect within the epoch cache's TTL. Values
+ * are immutable {@link AuthenticatedUser} snapshots, never the
+ * {@link com.learn.ecommerce.entity.LocalUser} entity: a hit is handed to every
+ * request carrying the token at once, so nothing a request or a persistence
+ * context does can leak into another request through it. Anything that revokes tokens or changes what the principal carries
+ * calls {@link #invalidateUser} inside its transaction; the user's entries are
+ * dropped once it commits, and a validation that raced with it is not cached.
+ */
+@Slf4j
+@Service
+public class TokenValidationCache {
+
+    /** {@code tokenEpoch} is 0 for tokens issued before the epoch claim existed. */
+    public record ValidatedToken(AuthenticatedUser user, int tokenEpoch) {
+    }
+
+    private final BoundedTtlCache<String, ValidatedToken> cache;
+
+    public TokenValidationCache(MeterRegistry meterRegistry,
+                                @Value("${auth.token-cache.max-size:50000}") int maxSize,
+                                @Value("${auth.token-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.cache.bindTo(meterRegistry, "auth.tokens");
+    }
+
+    public ValidatedToken get(String tokenHash) {
+        return cache.get(tokenHash);
+    }
+
+    /**
+     * Read before validating; pass it back to {@link #put} so a concurrent
+     * invalidation wins over the result of an earlier lookup.
+     */
+    public long generation() {
+        return cache.generation();
+    }
+
+    public void put(String tokenHash, AuthenticatedUser user, int tokenEpoch, Instant tokenExpiresAt, long generation) {
+        cache.putIfUnchanged(tokenHash, new ValidatedToken(user, tokenEpoch), generation,
+                Duration.between(Instant.now(), tokenExpiresAt));
+    }
+
+    public void invalidateUser(Long userId) {
+        TransactionUtils.runAfterCommit(() -> {
+            int removed = cache.invalidateIf((tokenHash, entry) -> entry.user().id().equals(userId));
+            log.debug("Dropped {} cached tokens of user {}", removed, userId);
+        });
+    }
+}
@@ -8,6 +8,7 @@ import com.learn.ecommerce.DTO.UserResponseDTO.LoginResponseDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.LogoutResponseDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.UserDTO;
 import com.learn.ecommerce.DTO.UserResponseDTO.UserStatusDTO;
+import com.learn.ecommerce.config.security.AuthenticatedUser;
 import com.learn.ecommerce.entity.Address;
 import com.learn.ecommerce.entity.LocalUser;
 import com.learn.ecommerce.entity.LoginTokens;
@@ -16,6 +17,7 @@ import com.learn.ecommerce.exceptionhandler.*;
 import com.learn.ecommerce.repository.LocalUserRepo;
 import com.learn.ecommerce.repository.LoginTokensRepo;
 import com.learn.ecommerce.repository.VerificationTokenRepo;
+import com.learn.ecommerce.utils.TokenHash;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -40,6 +42,8 @@ public class UserService {
     private final JwtService jwtService;
     private final EmailService emailService;
 	private final VerificationTokenRepo verificationTokenRepo;
+	private final TokenValidationCache tokenValidationCache;
+	private final TokenEpochService tokenEpochService;
 
     private VerificationToken createVerificationToken(LocalUser user) {
         String token = jwtService.generateVerificationToken(user);
@@ -90,7 +94,7 @@ public class UserService {
 							    address1.getCity(),
 							    address1.getCountry()))
 			    .toList();
-		List<RolesDTO> rolesDTOS = user.getUserRoles().stream().filter(roles-> !roles.isDeleted()).map(roles->
+		List<RolesDTO> rolesDTOS = localUser.getUserRoles().stream().filter(roles-> !roles.isDeleted()).map(roles->
 			 new RolesDTO(roles.getRoleName())).toList();
 
 	    return UserDTO.builder()
@@ -109,12 +113,12 @@ public class UserService {
 			    .build();	}
 
 
-    public UserDTO getUserProfile(LocalUser user) {
-        log.info("Fetching profile for userId={}", user.getId());
+    public UserDTO getUserProfile(AuthenticatedUser user) {
+        log.info("Fetching profile for userId={}", user.id());
 
-        LocalUser localUser = userRepository.findByIdAndIsDeleted(user.getId(),false)
+        LocalUser localUser = userRepository.findByIdAndIsDeleted(user.id(),false)
                 .orElseThrow(() -> {
-                    log.warn("User not found: id={}", user.getId());
+                    log.warn("User not found: id={}", user.id());
                     return new UserNotFoundException("user not found");
                 });
 
@@ -126,7 +130,7 @@ public class UserService {
 					    address.getCity(),
 					    address.getCountry()))
 			    .toList();
-	    List<RolesDTO> rolesDTOS = user.getUserRoles().stream().filter(roles-> !roles.isDeleted()).map(roles->
+	    List<RolesDTO> rolesDTOS = localUser.getUserRoles().stream().filter(roles-> !roles.isDeleted()).map(roles->
 			    new RolesDTO(roles.getRoleName())).toList();
 
 		     return UserDTO.builder()
@@ -189,7 +193,7 @@ public class UserService {
     public UserStatusDTO verifyUserEmail(String token) {
 
 
-	    VerificationToken verificationToken =  verificationTokenRepo.findByTokenAndIsDeleted(token,false)
+	    VerificationToken verificationToken =  verificationTokenRepo.findByTokenHashAndIsDeleted(TokenHash.of(token),false)
 			    .orElseThrow(() -> new TokenNotFoundException("Token not found"));
 
 
@@ -277,7 +281,7 @@ public class UserService {
     public UserStatusDTO resetPassword(String newPassword, String token) {
 
 
-        VerificationToken verificationToken =  verificationTokenRepo.findByTokenAndIsDeleted(token,false)
+        VerificationToken verificationToken =  verificationTokenRepo.findByTokenHashAndIsDeleted(TokenHash.of(token),false)
 					    .orElseThrow(() -> new TokenNotFoundException("Token not found"));
 
 	    if (verificationToken.getExpiryDate().isBefore(Instant.now())) {
@@ -288,7 +292,7 @@ public class UserService {
 	    log.info("Resetting password for user={}", user.getUsername());
 	    user.setPassword(encryptionService.encryptPassword(newPassword));
 	    verificationToken.setDeleted(true);
-		logoutUser(user);
+		tokenEpochService.revokeAll(user.getId());
         userRepository.save(user);
 
         log.info("Password reset successfully for user {}", user.getUsername());
@@ -301,8 +305,14 @@ public class UserService {
     }
 
     @Transactional
-    public UserStatusDTO updateLoggedInUserProfile(LocalUser user, EditUserBody body) {
-        log.info("Updating profile for user={}", user.getUsername());
+    public UserStatusDTO updateLoggedInUserProfile(AuthenticatedUser principal, EditUserBody body) {
+        log.info("Updating profile for user={}", principal.username());
+
+        LocalUser user = userRepository.findByIdAndIsDeleted(principal.id(),false)
+                .orElseThrow(() -> {
+                    log.warn("User not found for profile update: id={}", principal.id());
+                    return new UserNotFoundException("user not found");
+                });
 
 
         if (body.getEmail() != null) {
@@ -331,6 +341,7 @@ public class UserService {
 		}
 
         userRepository.save(user);
+        tokenValidationCache.invalidateUser(user.getId());
         log.info("User profile updated successfully for user={}", user.getUsername());
 
         return UserStatusDTO.builder()
@@ -369,6 +380,7 @@ public class UserService {
 		}
 
 		userRepository.save(user);
+		tokenValidationCache.invalidateUser(user.getId());
 		log.info("User profile updated successfully for user={}", user.getUsername());
 
 		return UserStatusDTO.builder()
@@ -381,24 +393,11 @@ public class UserService {
 	}
 
     @Transactional
-    public LogoutResponseDTO logoutUser(LocalUser user) {
-        log.info("Logging out user {}", user.getUsername());
-
-        List<LoginTokens> tokens = loginTokensRepo.findAllByUserAndIsDeleted(user,false);
-        if (!tokens.isEmpty()) {
-            tokens.forEach(token -> {
-                token.setExpired(true);
-                token.setRevoked(true);
-            });
-            log.info("User {} logged out, {} tokens expired/revoked", user.getUsername(), tokens.size());
-            return LogoutResponseDTO.builder()
-                    .logoutMessage("User logged out successfully.")
-                    .build();
-        }
-
-        log.info("No active sessions found for user {}", user.getUsername());
+    public LogoutResponseDTO logoutUser(AuthenticatedUser user) {
+        log.info("Logging out user {}", user.username());
+        tokenEpochService.revokeAll(user.id());
         return LogoutResponseDTO.builder()
-                .logoutMessage("No active sessions found for the user.")
+                .logoutMessage("User logged out successfully.")
                 .build();
     }
-}
\ No newline at end of file
+}
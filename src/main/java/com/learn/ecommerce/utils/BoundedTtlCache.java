@@ -0,0 +1,166 @@
+package com.learn.ecommerce.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Size-bounded, least-recently-used cache whose entries also expire after a TTL.
+ * Every invalidation bumps a generation counter; loaders read {@link #generation()}
+ * before going to the database and store with {@link #putIfUnchanged}, so a value
+ * loaded before a concurrent write is never cached after that write's invalidation.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * Stores the value with a TTL no longer than the cache default.
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, Math.min(ttl.toNanos(), ttlNanos));
+    }
+
+    public synchronized boolean putIfUnchanged(K key, V value, long expectedGeneration) {
+        if (generation.get() != expectedGeneration) return false;
+        put(key, value, ttlNanos);
+        return true;
+    }
+
+    /**
+     * {@link #putIfUnchanged(Object, Object, long)} with a TTL no longer than the
+     * cache default.
+     */
+    public synchronized boolean putIfUnchanged(K key, V value, long expectedGeneration, Duration ttl) {
+        if (generation.get() != expectedGeneration) return false;
+        put(key, value, Math.min(ttl.toNanos(), ttlNanos));
+        return true;
+    }
+
+    private synchronized void put(K key, V value, long ttl) {
+        if (ttl <= 0) return;
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttl));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public synchronized void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public synchronized int invalidateIf(BiPredicate<K, V> predicate) {
+        generation.incrementAndGet();
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Publishes the counters under the standard {@code cache.*} meter names,
+     * tagged with the given cache name, so they show up in /actuator/metrics.
+     */
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::hitCount)
+                .tag("cache", cacheName).tag("result", "hit")
+                .description("Cache lookups that found a live entry")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::missCount)
+                .tag("cache", cacheName).tag("result", "miss")
+                .description("Cache lookups that found nothing or an expired entry")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, BoundedTtlCache::evictionCount)
+                .tag("cache", cacheName)
+                .description("Entries dropped because of size or TTL")
+                .register(registry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size)
+                .tag("cache", cacheName)
+                .register(registry);
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.learn.ecommerce.utils;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable, path-compressed prefix trie laid out in flat primitive arrays.
+ * Entries are sorted by key, so every node covers a contiguous range of entries
+ * and its edge label is a slice of the first key in that range; chains of
+ * single-child nodes collapse into one edge, so there are at most two nodes per
+ * distinct key. Children of a node are stored next to each other and ordered by
+ * their first character, which keeps lookups to one binary search per edge.
+ * Nodes that cover many entries also keep a precomputed top-K list by weight, so
+ * popular short prefixes are answered without scanning their range.
+ */
+public final class CompactPrefixTrie {
+
+    public record Entry(long id, String key, String label, long weight) {
+    }
+
+    private final String[] keys;
+    private final String[] labels;
+    private final long[] ids;
+    private final long[] weights;
+    private final long[] idsSorted;
+    private final int[] indexOfSorted;
+
+    private final char[] nodeLabel;
+    private final int[] nodeDepth;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] rangeLo;
+    private final int[] rangeHi;
+    private final int[] topStart;
+    private final int[] topPool;
+    private final int topK;
+
+    private CompactPrefixTrie(String[] keys, String[] labels, long[] ids, long[] weights,
+                              long[] idsSorted, int[] indexOfSorted,
+                              char[] nodeLabel, int[] nodeDepth, int[] childStart, int[] childCount,
+                              int[] rangeLo, int[] rangeHi, int[] topStart, int[] topPool, int topK) {
+        this.keys = keys;
+        this.labels = labels;
+        this.ids = ids;
+        this.weights = weights;
+        this.idsSorted = idsSorted;
+        this.indexOfSorted = indexOfSorted;
+        this.nodeLabel = nodeLabel;
+        this.nodeDepth = nodeDepth;
+        this.childStart = childStart;
+        this.childCount = childCount;
+        this.rangeLo = rangeLo;
+        this.rangeHi = rangeHi;
+        this.topStart = topStart;
+        this.topPool = topPool;
+        this.topK = topK;
+    }
+
+    public static CompactPrefixTrie empty(int topK) {
+        return build(List.of(), topK, topK);
+    }
+
+    /**
+     * @param topK                  length of the precomputed per-node result lists
+     * @param precomputeThreshold   nodes covering more entries than this get a precomputed list
+     */
+    public static CompactPrefixTrie build(Collection<Entry> source, int topK, int precomputeThreshold) {
+        Entry[] sorted = source.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparing(Entry::key).thenComparingLong(Entry::id));
+
+        int n = sorted.length;
+        String[] keys = new String[n];
+        String[] labels = new String[n];
+        long[] ids = new long[n];
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = sorted[i].key();
+            labels[i] = sorted[i].label();
+            ids[i] = sorted[i].id();
+            weights[i] = sorted[i].weight();
+        }
+
+        // id -> entry index as two parallel arrays sorted by id (ids are unique)
+        long[] idsSorted = ids.clone();
+        Arrays.sort(idsSorted);
+        int[] indexOfSorted = new int[n];
+        for (int i = 0; i < n; i++) indexOfSorted[Arrays.binarySearch(idsSorted, ids[i])] = i;
+
+        // breadth-first construction: the node arrays double as the work queue.
+        // A radix tree over n keys has at most 2n nodes plus the root.
+        int capacity = 2 * n + 1;
+        int[] lo = new int[capacity], hi = new int[capacity], depth = new int[capacity];
+        int[] start = new int[capacity], count = new int[capacity];
+        char[] label = new char[capacity];
+        hi[0] = n;
+        int nodes = 1;
+        for (int node = 0; node < nodes; node++) {
+            int d = depth[node];
+            int i = lo[node];
+            int end = hi[node];
+            while (i < end && keys[i].length() == d) i++;   // entries ending at this node sort first
+
+            start[node] = nodes;
+            while (i < end) {
+                char c = keys[i].charAt(d);
+                int j = i + 1;
+                while (j < end && keys[j].charAt(d) == c) j++;
+                // in a sorted range the common prefix of the first and last key is shared by all
+                lo[nodes] = i;
+                hi[nodes] = j;
+                depth[nodes] = commonPrefix(keys[i], keys[j - 1], d + 1);
+                label[nodes] = c;
+                nodes++;
+                i = j;
+            }
+            count[node] = nodes - start[node];
+        }
+
+        int[] topStart = new int[nodes];
+        int poolSize = 0;
+        for (int node = 0; node < nodes; node++) {
+            int size = hi[node] - lo[node];
+            topStart[node] = -1;
+            if (size > precomputeThreshold) {
+                topStart[node] = poolSize;
+                poolSize += Math.min(topK, size);
+            }
+        }
+        int[] pool = new int[poolSize];
+        for (int node = 0; node < nodes; node++) {
+            if (topStart[node] < 0) continue;
+            int[] ranked = rank(weights, lo[node], hi[node], topK, i -> false, ids);
+            System.arraycopy(ranked, 0, pool, topStart[node], ranked.length);
+        }
+
+        return new CompactPrefixTrie(keys, labels, ids, weights, idsSorted, indexOfSorted,
+                Arrays.copyOf(label, nodes), Arrays.copyOf(depth, nodes),
+                Arrays.copyOf(start, nodes), Arrays.copyOf(count, nodes),
+                Arrays.copyOf(lo, nodes), Arrays.copyOf(hi, nodes),
+                topStart, pool, topK);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(idsSorted, id) >= 0;
+    }
+
+    public long weightOf(long id) {
+        int k = Arrays.binarySearch(idsSorted, id);
+        return k < 0 ? 0 : weights[indexOfSorted[k]];
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) entries.add(entry(i));
+        return entries;
+    }
+
+    /**
+     * Returns up to {@code limit} entries whose key starts with {@code prefix},
+     * heaviest first (ties in key order), skipping ids rejected by {@code excluded}.
+     */
+    public List<Entry> top(String prefix, int limit, LongPredicate excluded) {
+        int node = find(prefix);
+        if (node < 0 || limit <= 0) return List.of();
+
+        List<Entry> result = new ArrayList<>(limit);
+        int precomputed = topStart[node];
+        int rangeSize = rangeHi[node] - rangeLo[node];
+        if (precomputed >= 0 && limit <= topK) {
+            int available = Math.min(topK, rangeSize);
+            for (int k = 0; k < available && result.size() < limit; k++) {
+                int index = topPool[precomputed + k];
+                if (!excluded.test(ids[index])) result.add(entry(index));
+            }
+            // the precomputed list only falls short when part of it was excluded
+            if (result.size() == limit || available == rangeSize) return result;
+            result.clear();
+        }
+
+        for (int index : rank(weights, rangeLo[node], rangeHi[node], limit, excluded, ids)) {
+            result.add(entry(index));
+        }
+        return result;
+    }
+
+    /**
+     * The node whose range holds every key starting with {@code prefix}; a prefix
+     * that ends inside an edge resolves to the node below that edge.
+     */
+    private int find(String prefix) {
+        int node = 0;
+        int d = 0;
+        while (d < prefix.length()) {
+            char c = prefix.charAt(d);
+            int low = childStart[node];
+            int high = low + childCount[node] - 1;
+            int next = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (nodeLabel[mid] < c) low = mid + 1;
+                else if (nodeLabel[mid] > c) high = mid - 1;
+                else {
+                    next = mid;
+                    break;
+                }
+            }
+            if (next < 0) return -1;
+
+            int edgeEnd = Math.min(nodeDepth[next], prefix.length());
+            if (!keys[rangeLo[next]].regionMatches(d + 1, prefix, d + 1, edgeEnd - d - 1)) return -1;
+            node = next;
+            d = nodeDepth[next];
+        }
+        return node;
+    }
+
+    private Entry entry(int index) {
+        return new Entry(ids[index], keys[index], labels[index], weights[index]);
+    }
+
+    private static int commonPrefix(String a, String b, int from) {
+        int max = Math.min(a.length(), b.length());
+        int i = from;
+        while (i < max && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    // bounded min-heap selection of the heaviest entries in [lo, hi); the root is the weakest kept entry
+    private static int[] rank(long[] weights, int lo, int hi, int limit, LongPredicate excluded, long[] ids) {
+        int[] heap = new int[Math.max(0, Math.min(limit, hi - lo))];
+        int size = 0;
+        for (int i = lo; i < hi; i++) {
+            if (excluded.test(ids[i])) continue;
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++, weights);
+            } else if (size > 0 && heavier(i, heap[0], weights)) {
+                heap[0] = i;
+                siftDown(heap, size, weights);
+            }
+        }
+        // pop weakest first into the back of the result
+        int[] ranked = new int[size];
+        for (int k = size - 1; k >= 0; k--) {
+            ranked[k] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, weights);
+        }
+        return ranked;
+    }
+
+    // heavier weight first; on equal weight the earlier (key-ordered) entry wins
+    private static boolean heavier(int a, int b, long[] weights) {
+        return weights[a] != weights[b] ? weights[a] > weights[b] : a < b;
+    }
+
+    private static void siftUp(int[] heap, int k, long[] weights) {
+        int value = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!heavier(heap[parent], value, weights)) break;
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = value;
+    }
+
+    private static void siftDown(int[] heap, int size, long[] weights) {
+        if (size == 0) return;
+        int value = heap[0];
+        int k = 0;
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heavier(heap[child], heap[child + 1], weights)) child++;
+            if (!heavier(value, heap[child], weights)) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = value;
+    }
+}
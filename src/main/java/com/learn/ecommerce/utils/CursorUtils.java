@@ -0,0 +1,47 @@
+package com.learn.ecommerce.utils;
+
+import com.learn.ecommerce.exceptionhandler.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes keyset positions into opaque, URL-safe continuation tokens.
+ * Each part is length-prefixed so values may contain any character.
+ */
+public class CursorUtils {
+
+    private CursorUtils() {
+    }
+
+    public static String encode(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            sb.append(part.length()).append(':').append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<String> decode(String cursor, int expectedParts) {
+        List<String> parts = new ArrayList<>();
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int pos = 0;
+            while (pos < raw.length()) {
+                int colon = raw.indexOf(':', pos);
+                int length = Integer.parseInt(raw.substring(pos, colon));
+                parts.add(raw.substring(colon + 1, colon + 1 + length));
+                pos = colon + 1 + length;
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (parts.size() != expectedParts) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,127 @@
+package com.learn.ecommerce.utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for keyed expirations. Scheduling and cancelling are O(1):
+ * callers only enqueue the timeout or flag it cancelled, and a single worker
+ * thread moves pending timeouts into their slot and expires one slot per tick.
+ * Deadlines further out than one revolution are tracked with a round counter.
+ * Expiry precision is one tick. Scheduling a key again replaces its timeout.
+ */
+public final class HashedTimingWheel<K> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout<K>>[] slots;
+    private final Queue<Timeout<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Map<K, Timeout<K>> timeouts = new ConcurrentHashMap<>();
+    private final Consumer<K> onExpire;
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, Duration tickDuration, int slotCount, Consumer<K> onExpire) {
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) slots[i] = new ArrayDeque<>();
+        this.onExpire = onExpire;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void schedule(K key, Duration delay) {
+        Timeout<K> timeout = new Timeout<>(key, System.nanoTime() - startNanos + delay.toNanos());
+        Timeout<K> previous = timeouts.put(key, timeout);
+        if (previous != null) previous.cancelled = true;
+        pending.add(timeout);
+    }
+
+    public void cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout != null) timeout.cancelled = true;
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                }
+            }
+            transferPending();
+            expire(slots[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout<K> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) continue;
+            long due = timeout.deadlineNanos / tickNanos;
+            timeout.rounds = Math.max(0, (due - tick) / slots.length);
+            slots[(int) (Math.max(due, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout<K>> slot) {
+        Iterator<Timeout<K>> it = slot.iterator();
+        while (it.hasNext()) {
+            Timeout<K> timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.rounds > 0) {
+                timeout.rounds--;
+            } else {
+                it.remove();
+                if (timeouts.remove(timeout.key, timeout)) {
+                    try {
+                        onExpire.accept(timeout.key);
+                    } catch (RuntimeException ignored) {
+                        // one failing callback must not stop the wheel
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+        private long rounds;
+
+        private Timeout(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.learn.ecommerce.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Validator pair for conditional GETs: a strong entity tag plus the
+ * Last-Modified instant. The tag is a hash of the version columns the
+ * representation is built from and of anything else that shapes it
+ * (ids, filters, paging), so equal tags mean byte-identical responses.
+ */
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    public static ResourceVersion of(Instant lastModified, Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            source.append(Objects.toString(part)).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            String etag = HexFormat.of().formatHex(digest, 0, 16);
+            return new ResourceVersion(etag, lastModified == null ? Instant.EPOCH : lastModified);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static Instant latest(Instant... instants) {
+        Instant latest = Instant.EPOCH;
+        for (Instant instant : instants) {
+            if (instant != null && instant.isAfter(latest)) latest = instant;
+        }
+        return latest;
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified.toEpochMilli();
+    }
+}
@@ -0,0 +1,84 @@
+package com.learn.ecommerce.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free stock counter split over several padded stripes, in the spirit of
+ * {@link java.util.concurrent.atomic.LongAdder} but with reservation semantics:
+ * a stripe is only ever decremented by CAS from a value that covers the amount,
+ * so the sum can never drop below zero. A reservation larger than the caller's
+ * home stripe borrows from the others. Stock can move between stripes while a
+ * sweep is under way, so the sweep is repeated as long as the total still
+ * covers what is missing, and everything taken is handed back only once it
+ * does not.
+ */
+public class StripedStockCounter {
+
+    private static final int PADDING = 8; // one stripe per 64-byte cache line
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedStockCounter(int stripes, long initial) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        reset(initial);
+    }
+
+    public boolean tryReserve(long amount) {
+        if (amount <= 0) return true;
+        int home = homeStripe();
+        long remaining = amount;
+        long[] taken = new long[stripes];
+
+        do {
+            for (int k = 0; k < stripes && remaining > 0; k++) {
+                int stripe = (home + k) % stripes;
+                int index = stripe * PADDING;
+                while (remaining > 0) {
+                    long current = cells.get(index);
+                    if (current <= 0) break;
+                    long take = Math.min(current, remaining);
+                    if (cells.compareAndSet(index, current, current - take)) {
+                        taken[stripe] += take;
+                        remaining -= take;
+                    }
+                }
+            }
+            if (remaining == 0) return true;
+            // stock released into a stripe already visited, or given back by a failed attempt
+        } while (available() >= remaining);
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) cells.addAndGet(stripe * PADDING, taken[stripe]);
+        }
+        return false;
+    }
+
+    public void release(long amount) {
+        if (amount > 0) cells.addAndGet(homeStripe() * PADDING, amount);
+    }
+
+    public long available() {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) sum += cells.get(stripe * PADDING);
+        return sum;
+    }
+
+    /**
+     * Spreads {@code total} over the stripes. Not atomic with respect to
+     * concurrent reservations; call it only while no checkout can reach the counter.
+     */
+    public void reset(long total) {
+        long base = Math.max(0, total) / stripes;
+        long extra = Math.max(0, total) % stripes;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            cells.set(stripe * PADDING, base + (stripe < extra ? 1 : 0));
+        }
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 16)) & 0x7fffffff) % stripes;
+    }
+}
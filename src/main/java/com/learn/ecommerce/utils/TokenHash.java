@@ -0,0 +1,28 @@
+package com.learn.ecommerce.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of a bearer or verification token as 64 lowercase hex characters.
+ * Used wherever a token has to be looked up or remembered without keeping the
+ * token itself around.
+ */
+public final class TokenHash {
+
+    public static final int LENGTH = 64;
+
+    private TokenHash() {
+    }
+
+    public static String of(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
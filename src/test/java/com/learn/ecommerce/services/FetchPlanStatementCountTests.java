@@ -0,0 +1,130 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.config.security.AuthenticatedUser;
+import com.learn.ecommerce.entity.*;
+import com.learn.ecommerce.repository.CartItemRepo;
+import com.learn.ecommerce.repository.OrderItemsRepo;
+import com.learn.ecommerce.repository.WebOrderRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The read paths below must run the same number of statements however many
+ * products, order items or cart items they return. Each test builds one
+ * fixture with a single row and one with {@value #MANY} rows, inside the test
+ * transaction, and compares the two.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(StatementCountFixtures.class)
+@Transactional
+class FetchPlanStatementCountTests {
+
+    private static final int MANY = 25;
+
+    @Autowired
+    private StatementCountFixtures fixtures;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private WebOrderRepo orderRepo;
+    @Autowired
+    private OrderItemsRepo orderItemRepo;
+    @Autowired
+    private CartItemRepo cartItemRepo;
+
+    private String tag;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tag = StatementCountFixtures.tag("fp");
+        Category category = fixtures.category(tag);
+        products.add(indexedProduct(tag + "one", category));
+        for (int i = 0; i < MANY; i++) {
+            products.add(indexedProduct(tag + "many" + i, category));
+        }
+    }
+
+    // the search index is not transactional, so undo what the fixtures added to it
+    @AfterEach
+    void tearDown() {
+        products.forEach(product -> productSearchIndex.remove(product.getId()));
+    }
+
+    @Test
+    void searchProductsRunsTheSameStatementsForOneOrManyMatches() {
+        long one = fixtures.statementsFor(() -> assertThat(productService.searchProducts(tag + "one")).hasSize(1));
+        long many = fixtures.statementsFor(() -> assertThat(productService.searchProducts(tag + "many")).hasSize(MANY));
+
+        assertThat(one).isEqualTo(1);
+        assertThat(many).isEqualTo(one);
+    }
+
+    @Test
+    void ordersForUserRunTheSameStatementsForOneOrManyItems() {
+        AuthenticatedUser withOne = userWithOrder(1);
+        AuthenticatedUser withMany = userWithOrder(MANY);
+
+        long one = fixtures.statementsFor(() -> assertThat(orderService.getOrdersForUser(withOne).get(0).getItems()).hasSize(1));
+        long many = fixtures.statementsFor(() -> assertThat(orderService.getOrdersForUser(withMany).get(0).getItems()).hasSize(MANY));
+
+        assertThat(many).isEqualTo(one);
+    }
+
+    @Test
+    void activeCartRunsTheSameStatementsForOneOrManyItems() {
+        AuthenticatedUser withOne = userWithCart(1);
+        AuthenticatedUser withMany = userWithCart(MANY);
+
+        long one = fixtures.statementsFor(() -> assertThat(cartService.getCurrentActiveCart(withOne).getItems()).hasSize(1));
+        long many = fixtures.statementsFor(() -> assertThat(cartService.getCurrentActiveCart(withMany).getItems()).hasSize(MANY));
+
+        assertThat(many).isEqualTo(one);
+    }
+
+    private Product indexedProduct(String name, Category category) {
+        Product product = fixtures.product(name, category, 100);
+        productSearchIndex.index(product.getId(), product.getName(), product.getShortDescription());
+        return product;
+    }
+
+    private AuthenticatedUser userWithOrder(int items) {
+        LocalUser user = fixtures.user(tag + "order" + items);
+        WebOrder order = orderRepo.save(fixtures.order(fixtures.address(user)));
+        for (int i = 0; i < items; i++) {
+            order.getOrderItems().add(orderItemRepo.save(OrderItem.snapshotOf(products.get(i + 1), 1, order)));
+        }
+        return AuthenticatedUser.of(user);
+    }
+
+    private AuthenticatedUser userWithCart(int items) {
+        LocalUser user = fixtures.user(tag + "cart" + items);
+        Cart cart = fixtures.activeCart(user);
+        for (int i = 0; i < items; i++) {
+            Product product = products.get(i + 1);
+            cart.getItems().add(cartItemRepo.save(CartItem.builder()
+                    .cart(cart)
+                    .product(product)
+                    .quantity(1)
+                    .priceAtAddition(product.getPrice())
+                    .build()));
+        }
+        return AuthenticatedUser.of(user);
+    }
+}
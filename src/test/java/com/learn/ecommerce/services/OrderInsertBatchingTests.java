@@ -0,0 +1,88 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.entity.*;
+import com.learn.ecommerce.repository.OrderItemsRepo;
+import com.learn.ecommerce.repository.WebOrderRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order inserts must go out as JDBC batches, not one round trip per row. The
+ * user, address and product the orders point at come from
+ * {@link StatementCountFixtures}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(StatementCountFixtures.class)
+@Transactional
+class OrderInsertBatchingTests {
+
+    private static final int ITEMS_PER_ORDER = 40;
+    private static final int ORDERS = 50;
+
+    @Autowired
+    private StatementCountFixtures fixtures;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private WebOrderRepo orderRepo;
+    @Autowired
+    private OrderItemsRepo orderItemRepo;
+
+    private Address address;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String tag = StatementCountFixtures.tag("ob");
+        address = fixtures.address(fixtures.user(tag));
+        product = fixtures.product(tag, null, 1000);
+    }
+
+    @Test
+    void orderWithManyItemsIsInsertedInBatches() {
+        long statements = fixtures.statementsFor(() -> {
+            placeOrder();
+            entityManager.flush();
+        });
+
+        // order insert + item batch, plus at most one sequence call per table
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void manyOrdersCostTwoStatementsEachPlusSequenceCalls() {
+        long statements = fixtures.statementsFor(() -> {
+            for (int i = 0; i < ORDERS; i++) {
+                placeOrder();
+                entityManager.flush();
+            }
+        });
+
+        // each sequence call covers SequenceIds.ALLOCATION_SIZE ids; +1 per table for a block already in use
+        long orderSequenceCalls = ORDERS / SequenceIds.ALLOCATION_SIZE + 1;
+        long itemSequenceCalls = (long) ORDERS * ITEMS_PER_ORDER / SequenceIds.ALLOCATION_SIZE + 1;
+        assertThat(statements).isLessThanOrEqualTo(2L * ORDERS + orderSequenceCalls + itemSequenceCalls);
+    }
+
+    private void placeOrder() {
+        WebOrder order = fixtures.order(address);
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            items.add(OrderItem.snapshotOf(product, 1, order));
+        }
+        order.setOrderItems(items);
+        orderRepo.save(order);
+        orderItemRepo.saveAll(items);
+    }
+}
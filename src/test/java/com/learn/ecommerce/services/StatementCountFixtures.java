@@ -0,0 +1,125 @@
+package com.learn.ecommerce.services;
+
+import com.learn.ecommerce.entity.*;
+import com.learn.ecommerce.enums.CartStatus;
+import com.learn.ecommerce.enums.OrderStatus;
+import com.learn.ecommerce.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rows and statement counting for the tests that assert how many statements a
+ * read or write path runs. Everything is saved in the caller's test
+ * transaction, so the tests run the same against an empty or a seeded schema.
+ * Import it next to
+ * {@code @SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")}.
+ */
+@TestComponent
+class StatementCountFixtures {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private LocalUserRepo localUserRepo;
+    @Autowired
+    private AddressRepo addressRepo;
+    @Autowired
+    private CategoryRepo categoryRepo;
+    @Autowired
+    private ProductRepo productRepo;
+    @Autowired
+    private InventoryRepo inventoryRepo;
+    @Autowired
+    private CartRepo cartRepo;
+
+    /** A random prefix that keeps the names of one test's rows apart from any other rows. */
+    static String tag(String prefix) {
+        return prefix + Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+    }
+
+    LocalUser user(String name) {
+        return localUserRepo.save(LocalUser.builder()
+                .userName(name)
+                .email(name + "@example.com")
+                .password("fixture")
+                .firstName("Fixture")
+                .lastName(name)
+                .phoneNumber(String.format("+1%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L)))
+                .isEnabled(true)
+                .userRoles(new ArrayList<>())
+                .addresses(new ArrayList<>())
+                .verificationTokens(new ArrayList<>())
+                .carts(new ArrayList<>())
+                .build());
+    }
+
+    Address address(LocalUser user) {
+        return addressRepo.save(Address.builder()
+                .user(user)
+                .addressLine1("1 Fixture Street")
+                .city("Cairo")
+                .country("Egypt")
+                .build());
+    }
+
+    Category category(String name) {
+        return categoryRepo.save(Category.builder().name(name).products(new ArrayList<>()).build());
+    }
+
+    // the inventory is saved first and cascades to the product
+    Product product(String name, Category category, int quantity) {
+        Product product = Product.builder()
+                .name(name)
+                .shortDescription("fixture")
+                .price(10.0)
+                .category(category)
+                .build();
+        Inventory inventory = Inventory.builder().product(product).quantity(quantity).build();
+        product.setInventory(inventory);
+        inventoryRepo.save(inventory);
+        return productRepo.save(product);
+    }
+
+    /** A pending order with no items yet, not saved. */
+    WebOrder order(Address address) {
+        return WebOrder.builder()
+                .user(address.getUser())
+                .address(address)
+                .orderStatus(OrderStatus.PENDING)
+                .totalPrice(0.0)
+                .orderItems(new ArrayList<>())
+                .build();
+    }
+
+    Cart activeCart(LocalUser user) {
+        return cartRepo.save(Cart.builder()
+                .user(user)
+                .status(CartStatus.ACTIVE)
+                .items(new ArrayList<>())
+                .build());
+    }
+
+    /**
+     * Flushes the fixtures, clears the persistence context so nothing is served
+     * from it, and returns the number of statements {@code action} prepares.
+     */
+    long statementsFor(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}